@@ -0,0 +1,96 @@
+package com.iftm.client.benchmarks;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.iftm.client.DsclientApplication;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.search.ClientNameIndex;
+
+public final class BenchmarkData {
+
+	private static final String[] FIRST_NAMES = { "Ana", "Bruno", "Carolina", "Daniel", "Eduarda", "Fernando", "Gabriela",
+			"Henrique", "Isabela", "João", "Karina", "Lázaro", "Mariana", "Nicolas", "Otávio", "Paula", "Rafael",
+			"Sofia", "Thiago", "Vitória" };
+	private static final String[] LAST_NAMES = { "Almeida", "Barbosa", "Cardoso", "Dias", "Evaristo", "Ferreira", "Gomes",
+			"Lima", "Martins", "Nascimento", "Oliveira", "Pereira", "Ribeiro", "Santos", "Teixeira", "Vieira" };
+
+	private static final int SEEDED_CLIENTS = 12;
+	private static final int BATCH_SIZE = 10_000;
+	private static final long FIRST_BIRTH = Instant.parse("1930-01-01T00:00:00Z").getEpochSecond();
+	private static final long LAST_BIRTH = Instant.parse("2010-01-01T00:00:00Z").getEpochSecond();
+
+	private BenchmarkData() {
+	}
+
+	public static ConfigurableApplicationContext start(String... properties) {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(DsclientApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("logging.level.root=WARN", "spring.jpa.show-sql=false")
+				.properties(properties)
+				.run();
+	}
+
+	// Sobe a aplicação com o Tomcat numa porta livre (local.server.port).
+	public static ConfigurableApplicationContext startServer(String... properties) {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(DsclientApplication.class)
+				.web(WebApplicationType.SERVLET)
+				.properties("logging.level.root=WARN", "spring.jpa.show-sql=false", "server.port=0")
+				.properties(properties)
+				.run();
+	}
+
+	/*
+	 * Completa tb_client até "rows" registros com dados sintéticos e reinicia a
+	 * sequence depois do último id, como o import.sql faz.
+	 */
+	public static void seed(ConfigurableApplicationContext context, int rows) {
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		SplittableRandom random = new SplittableRandom(42);
+		for (long start = SEEDED_CLIENTS + 1; start <= rows; start += BATCH_SIZE) {
+			long first = start;
+			int size = (int) Math.min(BATCH_SIZE, rows - start + 1);
+			jdbc.batchUpdate("INSERT INTO tb_client (id, name, cpf, income, birth_date, children, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							Client client = client(random, first + i);
+							ps.setLong(1, client.getId());
+							ps.setString(2, client.getName());
+							ps.setString(3, client.getCpf());
+							ps.setDouble(4, client.getIncome());
+							ps.setTimestamp(5, Timestamp.from(client.getBirthDate()));
+							ps.setInt(6, client.getChildren());
+						}
+
+						@Override
+						public int getBatchSize() {
+							return size;
+						}
+					});
+		}
+		jdbc.execute("ALTER SEQUENCE tb_client_seq RESTART WITH " + (Math.max(rows, SEEDED_CLIENTS) + 1));
+		context.getBean(ClientNameIndex.class).rebuild();
+	}
+
+	public static Client client(SplittableRandom random, long id) {
+		String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + id;
+		String cpf = String.format("%011d", random.nextLong(100_000_000_000L));
+		double income = 1000.0 + random.nextInt(20_000);
+		Instant birthDate = Instant.ofEpochSecond(random.nextLong(FIRST_BIRTH, LAST_BIRTH));
+		return new Client(id, name, cpf, income, birthDate, random.nextInt(5));
+	}
+}
@@ -0,0 +1,79 @@
+package com.iftm.client.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.parallel.ParallelPipeline;
+
+/*
+ * Page<ClientDTO> serializada como o GET /clients faz: direto pelo Jackson
+ * (writeSequential) ou com o conteúdo trocado pelo ParallelPipeline
+ * (writePipeline, que abaixo do limite devolve a mesma página).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientJsonSerializationBenchmark {
+
+	@Param({ "12", "1000", "10000" })
+	private int size;
+
+	@Param({ "2000" })
+	private int threshold;
+
+	private ObjectMapper mapper;
+	private ParallelPipeline pipeline;
+	private Page<ClientDTO> page;
+
+	@Setup
+	public void setUp() {
+		mapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		pipeline = new ParallelPipeline(threshold, 500, 0, mapper);
+		SplittableRandom random = new SplittableRandom(42);
+		List<ClientDTO> content = new ArrayList<>(size);
+		for (long id = 1; id <= size; id++) {
+			content.add(new ClientDTO(BenchmarkData.client(random, id)));
+		}
+		page = new PageImpl<>(content, PageRequest.of(0, size), size);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pipeline.stop();
+	}
+
+	@Benchmark
+	public byte[] writeSequential() throws Exception {
+		return mapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] writePipeline() throws Exception {
+		return mapper.writeValueAsBytes(pipeline.forJson(page));
+	}
+}
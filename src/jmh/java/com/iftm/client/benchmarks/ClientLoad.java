@@ -0,0 +1,132 @@
+package com.iftm.client.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+/*
+ * Teste de carga fechado: "connections" usuários simultâneos, cada um com a
+ * sua requisição em andamento, repetindo GET até acabar o tempo. Compara o ClientResource
+ * (bloqueia a thread do Tomcat) com o ClientAsyncResource (executor JDBC).
+ *
+ * Args: [connections=1000] [seconds=30] [rows=100000]
+ */
+public class ClientLoad {
+
+	public static void main(String[] args) throws Exception {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+		int rows = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+		ConfigurableApplicationContext context = BenchmarkData.startServer(
+				"spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+				"server.tomcat.max-connections=" + (connections * 2),
+				"server.tomcat.accept-count=" + connections);
+		try {
+			BenchmarkData.seed(context, rows);
+			String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			for (String path : new String[] { "/clients", "/clients/async" }) {
+				Function<SplittableRandom, String> uris = random -> random.nextInt(4) == 0
+						? base + path + "/find-by-income?income=15000&count=false"
+						: base + path + "/" + (1 + random.nextInt(rows));
+				run(uris, connections, 5);
+				Result result = run(uris, connections, seconds);
+				System.out.printf("%-16s connections=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms errors=%d%n",
+						path, connections, result.throughput(), result.percentile(0.50), result.percentile(0.99), result.errors());
+			}
+		} finally {
+			context.close();
+		}
+	}
+
+	static Result run(Function<SplittableRandom, String> uris, int connections, int seconds) throws Exception {
+		ExecutorService users = Executors.newFixedThreadPool(connections);
+		// O HttpClient abre uma conexão HTTP/1.1 por requisição em andamento.
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		AtomicLong errors = new AtomicLong();
+		long[][] latencies = new long[connections][];
+		int[] counts = new int[connections];
+		for (int u = 0; u < connections; u++) {
+			int user = u;
+			users.execute(() -> {
+				SplittableRandom random = new SplittableRandom(user);
+				long[] own = new long[1024];
+				int n = 0;
+				while (System.nanoTime() < end) {
+					String uri = uris.apply(random);
+					long start = System.nanoTime();
+					boolean failed;
+					try {
+						HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+								HttpResponse.BodyHandlers.discarding());
+						failed = response.statusCode() != 200;
+					} catch (Exception e) {
+						failed = true;
+					}
+					long finished = System.nanoTime();
+					// Terminou depois do prazo: fica fora da janela medida, senão a vazão sai inflada.
+					if (finished > end) {
+						break;
+					}
+					if (failed) {
+						errors.incrementAndGet();
+					}
+					if (n == own.length) {
+						own = Arrays.copyOf(own, n * 2);
+					}
+					own[n++] = finished - start;
+				}
+				latencies[user] = own;
+				counts[user] = n;
+			});
+		}
+		users.shutdown();
+		users.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+		return new Result(latencies, counts, seconds, errors.get());
+	}
+
+	static class Result {
+		private final long[] sorted;
+		private final int seconds;
+		private final long errors;
+
+		Result(long[][] latencies, int[] counts, int seconds, long errors) {
+			int total = Arrays.stream(counts).sum();
+			this.sorted = new long[total];
+			int offset = 0;
+			for (int i = 0; i < latencies.length; i++) {
+				if (latencies[i] != null) {
+					System.arraycopy(latencies[i], 0, sorted, offset, counts[i]);
+					offset += counts[i];
+				}
+			}
+			Arrays.sort(sorted);
+			this.seconds = seconds;
+			this.errors = errors;
+		}
+
+		long errors() {
+			return errors;
+		}
+
+		double throughput() {
+			return (double) sorted.length / seconds;
+		}
+
+		double percentile(double p) {
+			return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, p * sorted.length)] / 1_000_000.0;
+		}
+	}
+}
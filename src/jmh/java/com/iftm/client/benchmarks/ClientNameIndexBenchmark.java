@@ -0,0 +1,62 @@
+package com.iftm.client.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iftm.client.services.search.ClientNameIndex;
+import com.iftm.client.services.search.NameSearchResult;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ClientNameIndexBenchmark {
+
+	@Param({ "1000000" })
+	private int names;
+
+	private ClientNameIndex index;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		index = new ClientNameIndex();
+		for (long id = 1; id <= names; id++) {
+			index.put(id, BenchmarkData.client(random, id).getName());
+		}
+	}
+
+	@Benchmark
+	public NameSearchResult shortQuery() {
+		return index.search("an", 0, 12);
+	}
+
+	@Benchmark
+	public NameSearchResult commonQuery() {
+		return index.search("maria", 0, 12);
+	}
+
+	@Benchmark
+	public NameSearchResult rareQuery() {
+		return index.search("vitoria teixeira vieira", 0, 12);
+	}
+
+	@Benchmark
+	public NameSearchResult numericQuery() {
+		return index.search(String.valueOf(names / 2), 0, 12);
+	}
+}
@@ -0,0 +1,80 @@
+package com.iftm.client.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Aumenta a concorrência em GET /clients (páginas aleatórias, sem o cache de
+ * páginas) e mostra, para cada nível, a vazão, o p99 e o que o pool do Hikari
+ * viu: maior fila de espera por conexão, pior tempo de aquisição e timeouts.
+ * O ponto de saturação é onde a vazão para de subir e "pending" passa a crescer.
+ *
+ * Args: [seconds=15] [rows=100000] [pool-size=10]
+ */
+public class ClientPoolSaturationLoad {
+
+	private static final int[] CONCURRENCY = { 4, 8, 16, 32, 64, 128, 256, 512, 1024 };
+
+	public static void main(String[] args) throws Exception {
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		ConfigurableApplicationContext context = BenchmarkData.startServer(
+				"spring.datasource.url=jdbc:h2:mem:saturation;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64",
+				"spring.datasource.hikari.maximum-pool-size=" + poolSize,
+				"spring.datasource.hikari.minimum-idle=" + poolSize,
+				"client.page-cache.max-size=0",
+				"server.tomcat.max-connections=4096",
+				"server.tomcat.accept-count=2048");
+		try {
+			BenchmarkData.seed(context, rows);
+			MeterRegistry registry = context.getBean(MeterRegistry.class);
+			String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			int pages = rows / 12;
+			Function<SplittableRandom, String> uris = random -> base + "/clients?page=" + random.nextInt(pages);
+			ClientLoad.run(uris, 16, 5);
+			for (int connections : CONCURRENCY) {
+				double timeoutsBefore = timeouts(registry);
+				AtomicInteger maxPending = new AtomicInteger();
+				ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+				sampler.scheduleAtFixedRate(() -> maxPending.accumulateAndGet(pending(registry), Math::max),
+						0, 50, TimeUnit.MILLISECONDS);
+				ClientLoad.Result result = ClientLoad.run(uris, connections, seconds);
+				sampler.shutdownNow();
+				System.out.printf("connections=%-5d throughput=%6.0f req/s p99=%7.1fms pool=%d pending.max=%-4d "
+						+ "acquire.max=%6.1fms timeouts=%.0f errors=%d%n",
+						connections, result.throughput(), result.percentile(0.99), poolSize, maxPending.get(),
+						acquire(registry).max(TimeUnit.MILLISECONDS),
+						timeouts(registry) - timeoutsBefore, result.errors());
+			}
+		} finally {
+			context.close();
+		}
+	}
+
+	private static Timer acquire(MeterRegistry registry) {
+		return registry.get("hikaricp.connections.acquire").timer();
+	}
+
+	private static int pending(MeterRegistry registry) {
+		Gauge gauge = registry.find("hikaricp.connections.pending").gauge();
+		return gauge == null ? 0 : (int) gauge.value();
+	}
+
+	private static double timeouts(MeterRegistry registry) {
+		Counter counter = registry.find("hikaricp.connections.timeout").counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
@@ -0,0 +1,81 @@
+package com.iftm.client.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientRepository;
+
+/*
+ * Compara a leitura via entidade gerenciada + new ClientDTO(entity) com a
+ * projeção direta em ClientDTO. Rodar com -prof gc para ver a taxa de alocação:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ClientProjectionBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientProjectionBenchmark {
+
+	@Param({ "10000" })
+	private int rows;
+
+	@Param({ "12", "500" })
+	private int pageSize;
+
+	private ConfigurableApplicationContext context;
+	private ClientRepository repository;
+	private TransactionTemplate transaction;
+	private PageRequest page;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkData.start("spring.datasource.url=jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1");
+		BenchmarkData.seed(context, rows);
+		repository = context.getBean(ClientRepository.class);
+		transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transaction.setReadOnly(true);
+		page = PageRequest.of(0, pageSize, Direction.ASC, "name");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedEntity() {
+		return transaction.execute(status -> repository.findAll(page).map(x -> new ClientDTO(x)));
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedProjection() {
+		return transaction.execute(status -> repository.findAllProjected(page));
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findByIncomeProjection() {
+		return transaction.execute(status -> repository.findProjectedByIncome(15000.0, page));
+	}
+}
@@ -0,0 +1,130 @@
+package com.iftm.client.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Sobe a aplicação (sem servidor web) sobre um H2 em memória com "rows"
+ * clientes. Ex.: -p rows=1000000 -jvmArgs -Xmx4g
+ * O cache de páginas fica desligado para que as listagens meçam a consulta,
+ * não o acerto no cache; cacheSize vale só para o findById.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientServiceBenchmark {
+
+	@Param({ "10000" })
+	private int rows;
+
+	@Param({ "10000" })
+	private int cacheSize;
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+	private SplittableRandom random;
+	private PageRequest firstPage;
+	private PageRequest deepPage;
+	private String deepCursor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkData.start(
+				"spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+				"client.cache.max-size=" + cacheSize,
+				"client.page-cache.max-size=0");
+		BenchmarkData.seed(context, rows);
+		service = context.getBean(ClientService.class);
+		random = new SplittableRandom(7);
+		firstPage = PageRequest.of(0, 12, Direction.ASC, "name");
+		deepPage = PageRequest.of(rows / 12 - 1, 12, Direction.ASC, "name");
+		deepCursor = seekTo(rows - 12);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedFirstPage() {
+		return service.findAllPaged(firstPage);
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPagedDeepPage() {
+		return service.findAllPaged(deepPage);
+	}
+
+	@Benchmark
+	public CursorPageDTO<ClientDTO> findAllSeekDeepPage() {
+		return service.findAllSeek(deepCursor, 12, Direction.ASC, "name");
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findByIncomePage() {
+		return service.findByIncome(15000.0, firstPage);
+	}
+
+	@Benchmark
+	public Slice<ClientDTO> findByIncomeSlice() {
+		return service.findSliceByIncome(15000.0, firstPage);
+	}
+
+	@Benchmark
+	public ClientDTO findById() {
+		return service.findById(1L + random.nextInt(rows));
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findByNameCommon() {
+		return service.findByName("maria", firstPage);
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findByNameRare() {
+		return service.findByName("vitoria teixeira", firstPage);
+	}
+
+	@Benchmark
+	public ClientDTO insert() {
+		ClientDTO dto = new ClientDTO(BenchmarkData.client(random, 0L));
+		dto.setId(null);
+		return service.insert(dto);
+	}
+
+	private String seekTo(int skip) {
+		int pageSize = 1000;
+		String cursor = null;
+		for (int read = 0; read + pageSize <= skip; read += pageSize) {
+			cursor = service.findAllSeek(cursor, pageSize, Direction.ASC, "name").getNextCursor();
+		}
+		return cursor;
+	}
+}
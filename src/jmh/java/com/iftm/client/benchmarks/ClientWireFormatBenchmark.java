@@ -0,0 +1,70 @@
+package com.iftm.client.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.resources.converters.ClientBinaryCodec;
+
+/*
+ * Custo de escrever uma Page<ClientDTO> em JSON (como o Jackson do MVC) e no
+ * formato binário. Os tamanhos dos dois payloads saem no log do setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientWireFormatBenchmark {
+
+	@Param({ "12", "1000", "10000" })
+	private int size;
+
+	private ObjectMapper mapper;
+	private Page<ClientDTO> page;
+
+	@Setup
+	public void setUp() throws Exception {
+		mapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		SplittableRandom random = new SplittableRandom(42);
+		List<ClientDTO> content = new ArrayList<>(size);
+		for (long id = 1; id <= size; id++) {
+			content.add(new ClientDTO(BenchmarkData.client(random, id)));
+		}
+		page = new PageImpl<>(content, PageRequest.of(0, size), size);
+		System.out.printf("%nsize=%d json=%d bytes binary=%d bytes%n", size, writeJson().length, writeBinary().length);
+	}
+
+	@Benchmark
+	public byte[] writeJson() throws Exception {
+		return mapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] writeBinary() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(size * 64 + 16);
+		ClientBinaryCodec.write(page, out);
+		return out.toByteArray();
+	}
+}
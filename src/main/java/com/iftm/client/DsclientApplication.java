@@ -2,8 +2,13 @@ package com.iftm.client;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+/*
+ * Um ConnectionFactory do R2DBC como bean desligaria o DataSource do JPA; a
+ * leitura reativa cria o seu pool no ClientReactiveRepository.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class DsclientApplication {
 
 	public static void main(String[] args) {
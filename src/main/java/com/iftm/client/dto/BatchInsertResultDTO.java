@@ -0,0 +1,47 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchInsertResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private long inserted;
+	private long failed;
+	private List<ChunkResultDTO> chunks = new ArrayList<>();
+	private String parseError;
+
+	public BatchInsertResultDTO() {
+	}
+
+	public void addChunk(ChunkResultDTO chunk) {
+		chunks.add(chunk);
+		if (chunk.getSuccess()) {
+			inserted += chunk.getSize();
+		} else {
+			failed += chunk.getSize();
+		}
+	}
+
+	public long getInserted() {
+		return inserted;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public List<ChunkResultDTO> getChunks() {
+		return chunks;
+	}
+
+	// Linha inválida que interrompeu a leitura; o que veio antes dela já foi processado.
+	public String getParseError() {
+		return parseError;
+	}
+
+	public void setParseError(String parseError) {
+		this.parseError = parseError;
+	}
+}
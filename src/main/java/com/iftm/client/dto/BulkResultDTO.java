@@ -0,0 +1,24 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class BulkResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private long affected;
+
+	public BulkResultDTO() {
+	}
+
+	public BulkResultDTO(long affected) {
+		this.affected = affected;
+	}
+
+	public long getAffected() {
+		return affected;
+	}
+
+	public void setAffected(long affected) {
+		this.affected = affected;
+	}
+}
@@ -0,0 +1,43 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class CacheStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private int size;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public CacheStatsDTO() {
+	}
+
+	public CacheStatsDTO(int size, long hits, long misses, long evictions) {
+		this.size = size;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public double getHitRatio() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+}
@@ -0,0 +1,65 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class ChunkResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Integer chunk;
+	private Integer size;
+	private Boolean success;
+	private List<Long> ids;
+	private String message;
+
+	public ChunkResultDTO() {
+	}
+
+	public ChunkResultDTO(Integer chunk, Integer size, Boolean success, List<Long> ids, String message) {
+		this.chunk = chunk;
+		this.size = size;
+		this.success = success;
+		this.ids = ids;
+		this.message = message;
+	}
+
+	public Integer getChunk() {
+		return chunk;
+	}
+
+	public void setChunk(Integer chunk) {
+		this.chunk = chunk;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Boolean getSuccess() {
+		return success;
+	}
+
+	public void setSuccess(Boolean success) {
+		this.success = success;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
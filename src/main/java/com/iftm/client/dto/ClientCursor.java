@@ -0,0 +1,113 @@
+package com.iftm.client.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort.Direction;
+
+public class ClientCursor {
+
+	public static final Set<String> SORTABLE_ATTRIBUTES = Set.of("id", "name", "cpf", "income", "birthDate", "children");
+
+	private static final String SEPARATOR = "|";
+
+	private final String orderBy;
+	private final Direction direction;
+	private final Long id;
+	private final Object value;
+
+	public ClientCursor(String orderBy, Direction direction, Long id, Object value) {
+		if (!SORTABLE_ATTRIBUTES.contains(orderBy)) {
+			throw new IllegalArgumentException("Unsupported sort attribute " + orderBy);
+		}
+		this.orderBy = orderBy;
+		this.direction = direction;
+		this.id = id;
+		this.value = value;
+	}
+
+	public static ClientCursor after(ClientDTO last, String orderBy, Direction direction) {
+		return new ClientCursor(orderBy, direction, last.getId(), valueOf(last, orderBy));
+	}
+
+	public static ClientCursor decode(String token) {
+		String decoded;
+		try {
+			decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		String[] parts = decoded.split("\\" + SEPARATOR, 4);
+		if (parts.length < 3) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		String orderBy = parts[0];
+		Direction direction = Direction.valueOf(parts[1]);
+		Long id = Long.valueOf(parts[2]);
+		Object value = parts.length == 4 ? parse(orderBy, parts[3]) : null;
+		return new ClientCursor(orderBy, direction, id, value);
+	}
+
+	public String encode() {
+		String raw = orderBy + SEPARATOR + direction.name() + SEPARATOR + id;
+		if (value != null) {
+			raw += SEPARATOR + value;
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	private static Object valueOf(ClientDTO dto, String orderBy) {
+		switch (orderBy) {
+		case "id":
+			return dto.getId();
+		case "name":
+			return dto.getName();
+		case "cpf":
+			return dto.getCpf();
+		case "income":
+			return dto.getIncome();
+		case "birthDate":
+			return dto.getBirthDate();
+		case "children":
+			return dto.getChildren();
+		default:
+			throw new IllegalArgumentException("Unsupported sort attribute " + orderBy);
+		}
+	}
+
+	private static Object parse(String orderBy, String raw) {
+		switch (orderBy) {
+		case "id":
+			return Long.valueOf(raw);
+		case "name":
+		case "cpf":
+			return raw;
+		case "income":
+			return Double.valueOf(raw);
+		case "birthDate":
+			return Instant.parse(raw);
+		case "children":
+			return Integer.valueOf(raw);
+		default:
+			throw new IllegalArgumentException("Unsupported sort attribute " + orderBy);
+		}
+	}
+}
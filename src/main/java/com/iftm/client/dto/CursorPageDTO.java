@@ -0,0 +1,55 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class CursorPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+	private int size;
+	private boolean hasNext;
+	private String nextCursor;
+
+	public CursorPageDTO() {
+	}
+
+	public CursorPageDTO(List<T> content, int size, boolean hasNext, String nextCursor) {
+		this.content = content;
+		this.size = size;
+		this.hasNext = hasNext;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,44 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class IncomeAdjustmentDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Double minIncome;
+	private Double maxIncome;
+	private Double factor;
+
+	public IncomeAdjustmentDTO() {
+	}
+
+	public IncomeAdjustmentDTO(Double minIncome, Double maxIncome, Double factor) {
+		this.minIncome = minIncome;
+		this.maxIncome = maxIncome;
+		this.factor = factor;
+	}
+
+	public Double getMinIncome() {
+		return minIncome;
+	}
+
+	public void setMinIncome(Double minIncome) {
+		this.minIncome = minIncome;
+	}
+
+	public Double getMaxIncome() {
+		return maxIncome;
+	}
+
+	public void setMaxIncome(Double maxIncome) {
+		this.maxIncome = maxIncome;
+	}
+
+	public Double getFactor() {
+		return factor;
+	}
+
+	public void setFactor(Double factor) {
+		this.factor = factor;
+	}
+}
@@ -0,0 +1,32 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class IncomeBucketDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private double from;
+	private double to;
+	private long count;
+
+	public IncomeBucketDTO() {
+	}
+
+	public IncomeBucketDTO(double from, double to, long count) {
+		this.from = from;
+		this.to = to;
+		this.count = count;
+	}
+
+	public double getFrom() {
+		return from;
+	}
+
+	public double getTo() {
+		return to;
+	}
+
+	public long getCount() {
+		return count;
+	}
+}
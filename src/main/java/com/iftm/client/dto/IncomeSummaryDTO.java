@@ -0,0 +1,80 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class IncomeSummaryDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private long count;
+	private long withIncome;
+	private Double sum;
+	private Double avg;
+	private Double min;
+	private Double max;
+	private Double p50;
+	private Double p90;
+	private Double p99;
+	private long children;
+
+	public IncomeSummaryDTO() {
+	}
+
+	public IncomeSummaryDTO(long count, long withIncome, Double sum, Double avg, Double min, Double max,
+			Double p50, Double p90, Double p99, long children) {
+		this.count = count;
+		this.withIncome = withIncome;
+		this.sum = sum;
+		this.avg = avg;
+		this.min = min;
+		this.max = max;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.children = children;
+	}
+
+	// Usado pela consulta agregada do repositório, que não calcula percentis.
+	public IncomeSummaryDTO(Long count, Long withIncome, Double sum, Double avg, Double min, Double max, Long children) {
+		this(count, withIncome, sum, avg, min, max, null, null, null, children == null ? 0 : children);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getWithIncome() {
+		return withIncome;
+	}
+
+	public Double getSum() {
+		return sum;
+	}
+
+	public Double getAvg() {
+		return avg;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public Double getP50() {
+		return p50;
+	}
+
+	public Double getP90() {
+		return p90;
+	}
+
+	public Double getP99() {
+		return p99;
+	}
+
+	public long getChildren() {
+		return children;
+	}
+}
@@ -0,0 +1,58 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class IngestionStatusDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public enum Status {
+		QUEUED, DONE, FAILED
+	}
+
+	private String trackingId;
+	private Status status;
+	private Long clientId;
+	private String message;
+
+	public IngestionStatusDTO() {
+	}
+
+	public IngestionStatusDTO(String trackingId, Status status, Long clientId, String message) {
+		this.trackingId = trackingId;
+		this.status = status;
+		this.clientId = clientId;
+		this.message = message;
+	}
+
+	public String getTrackingId() {
+		return trackingId;
+	}
+
+	public void setTrackingId(String trackingId) {
+		this.trackingId = trackingId;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(Long clientId) {
+		this.clientId = clientId;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
@@ -0,0 +1,26 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class NameCountDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	private long count;
+
+	public NameCountDTO() {
+	}
+
+	public NameCountDTO(String name, long count) {
+		this.name = name;
+		this.count = count;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCount() {
+		return count;
+	}
+}
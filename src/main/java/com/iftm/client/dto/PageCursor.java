@@ -0,0 +1,55 @@
+package com.iftm.client.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Cursor opaco para buscas ranqueadas (ex.: por nome), em que não há chave
+ * ordenável: guarda a página seguinte e o tamanho da página.
+ */
+public class PageCursor {
+
+	private static final String SEPARATOR = "|";
+
+	private final int page;
+	private final int size;
+
+	public PageCursor(int page, int size) {
+		if (page < 0 || size < 1) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		this.page = page;
+		this.size = size;
+	}
+
+	public static PageCursor decode(String token) {
+		String decoded;
+		try {
+			decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		String[] parts = decoded.split("\\" + SEPARATOR);
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Malformed cursor");
+		}
+		return new PageCursor(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+	}
+
+	public String encode() {
+		String raw = page + SEPARATOR + size;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public PageCursor next() {
+		return new PageCursor(page + 1, size);
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+}
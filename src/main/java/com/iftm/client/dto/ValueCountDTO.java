@@ -0,0 +1,26 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class ValueCountDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long value;
+	private long count;
+
+	public ValueCountDTO() {
+	}
+
+	public ValueCountDTO(Long value, long count) {
+		this.value = value;
+		this.count = count;
+	}
+
+	public Long getValue() {
+		return value;
+	}
+
+	public long getCount() {
+		return count;
+	}
+}
@@ -7,15 +7,22 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
-@Table(name = "tb_client")
+@Table(name = "tb_client", indexes = {
+		@Index(name = "idx_client_income_name", columnList = "income, name"),
+		@Index(name = "idx_client_birth_date", columnList = "birth_date"),
+		@Index(name = "idx_client_name", columnList = "name") })
 public class Client implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+	@SequenceGenerator(name = "client_seq", sequenceName = "tb_client_seq", allocationSize = 50)
 	private Long id;
 	private String name;
 	private String cpf;
@@ -23,6 +30,9 @@ public class Client implements Serializable {
 	private Instant birthDate;
 	private Integer children;
 	
+	@Version
+	private long version;
+	
 	public Client() {
 	}
 
@@ -83,6 +93,14 @@ public class Client implements Serializable {
 		this.children = children;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,75 @@
+package com.iftm.client.metrics;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Aspect
+@Component
+public class ClientMetricsAspect {
+
+	private final MeterRegistry registry;
+
+	public ClientMetricsAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("execution(public * com.iftm.client.services.ClientService.*(..))")
+	public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time("client.service", joinPoint, false);
+	}
+
+	@Around("execution(* com.iftm.client.repositories.ClientRepository+.*(..))")
+	public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time("client.repository", joinPoint, true);
+	}
+
+	private Object time(String name, ProceedingJoinPoint joinPoint, boolean countRows) throws Throwable {
+		String method = joinPoint.getSignature().getName();
+		String exception = "none";
+		Timer.Sample sample = Timer.start(registry);
+		try {
+			Object result = joinPoint.proceed();
+			if (countRows) {
+				recordRows(method, result);
+			}
+			return result;
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(name)
+					.tag("method", method)
+					.tag("exception", exception)
+					.publishPercentiles(0.5, 0.99)
+					.register(registry));
+		}
+	}
+
+	private void recordRows(String method, Object result) {
+		long rows;
+		if (result instanceof Collection) {
+			rows = ((Collection<?>) result).size();
+		} else if (result instanceof Slice) {
+			rows = ((Slice<?>) result).getNumberOfElements();
+		} else if (result instanceof Optional) {
+			rows = ((Optional<?>) result).isPresent() ? 1 : 0;
+		} else {
+			return;
+		}
+		DistributionSummary.builder("client.repository.rows")
+				.description("Rows returned per repository call")
+				.tag("method", method)
+				.register(registry)
+				.record(rows);
+	}
+}
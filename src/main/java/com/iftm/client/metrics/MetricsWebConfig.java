@@ -0,0 +1,22 @@
+package com.iftm.client.metrics;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricsWebConfig implements WebMvcConfigurer {
+
+	private final MeterRegistry registry;
+
+	public MetricsWebConfig(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new QueryCountInterceptor(this.registry)).addPathPatterns("/clients/**");
+	}
+}
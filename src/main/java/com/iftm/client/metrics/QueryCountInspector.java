@@ -0,0 +1,68 @@
+package com.iftm.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Registrado no Hibernate via hibernate.session_factory.statement_inspector;
+ * conta os comandos SQL preparados enquanto a thread atual tem um contador
+ * ligado. O QueryCountInterceptor liga um por requisição e decorate() leva o
+ * mesmo contador para as tarefas que a requisição manda aos executores
+ * (clientJdbcExecutor e applicationTaskExecutor). Threads sem contador, como
+ * a do ClientIngestionService e as cargas dos índices, não são contadas.
+ */
+public class QueryCountInspector implements StatementInspector {
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<AtomicLong> COUNT = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		AtomicLong count = COUNT.get();
+		if (count != null) {
+			count.incrementAndGet();
+		}
+		return sql;
+	}
+
+	public static AtomicLong start() {
+		AtomicLong count = new AtomicLong();
+		COUNT.set(count);
+		return count;
+	}
+
+	public static void bind(AtomicLong count) {
+		COUNT.set(count);
+	}
+
+	public static void clear() {
+		COUNT.remove();
+	}
+
+	public static long current() {
+		AtomicLong count = COUNT.get();
+		return count == null ? 0 : count.get();
+	}
+
+	// TaskDecorator: a tarefa conta no contador de quem a submeteu.
+	public static Runnable decorate(Runnable task) {
+		AtomicLong count = COUNT.get();
+		if (count == null) {
+			return task;
+		}
+		return () -> {
+			AtomicLong previous = COUNT.get();
+			COUNT.set(count);
+			try {
+				task.run();
+			} finally {
+				if (previous == null) {
+					COUNT.remove();
+				} else {
+					COUNT.set(previous);
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,57 @@
+package com.iftm.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * O contador fica num atributo da requisição: numa resposta assíncrona o
+ * preHandle roda de novo no redespacho, em outra thread, e só então vem o
+ * afterCompletion.
+ */
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String COUNTER_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".COUNTER";
+
+	private final MeterRegistry registry;
+
+	public QueryCountInterceptor(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		Object counter = request.getAttribute(COUNTER_ATTRIBUTE);
+		if (counter instanceof AtomicLong) {
+			QueryCountInspector.bind((AtomicLong) counter);
+		} else {
+			request.setAttribute(COUNTER_ATTRIBUTE, QueryCountInspector.start());
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		QueryCountInspector.clear();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		DistributionSummary.builder("client.http.queries")
+				.description("SQL statements executed per request")
+				.tag("method", request.getMethod())
+				.tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+				.publishPercentiles(0.5, 0.99)
+				.register(registry)
+				.record(QueryCountInspector.current());
+		QueryCountInspector.clear();
+	}
+}
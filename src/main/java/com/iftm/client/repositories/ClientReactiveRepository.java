@@ -0,0 +1,113 @@
+package com.iftm.client.repositories;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.iftm.client.dto.ClientDTO;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Leituras de tb_client via R2DBC, sem bloquear threads. Usa o mesmo banco do
+ * JPA: sem client.r2dbc.url, a URL é derivada de spring.datasource.url
+ * (jdbc:h2:mem:nome -> r2dbc:h2:mem:///nome).
+ */
+@Repository
+public class ClientReactiveRepository implements DisposableBean {
+
+	private static final String SELECT = "SELECT id, name, cpf, income, birth_date, children, version FROM tb_client";
+
+	private final ConnectionPool pool;
+	private final DatabaseClient client;
+
+	public ClientReactiveRepository(
+			@Value("${client.r2dbc.url:}") String url,
+			@Value("${spring.datasource.url:jdbc:h2:mem:testdb}") String jdbcUrl,
+			@Value("${spring.datasource.username:sa}") String username,
+			@Value("${spring.datasource.password:}") String password,
+			@Value("${client.r2dbc.pool-size:4}") int poolSize) {
+		String r2dbcUrl = url.isEmpty() ? fromJdbcUrl(jdbcUrl) : url;
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+				.option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password)
+				.build();
+		ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+				.builder(ConnectionFactories.get(options))
+				.initialSize(1)
+				.maxSize(poolSize)
+				.maxIdleTime(Duration.ofMinutes(30))
+				.build();
+		this.pool = new ConnectionPool(configuration);
+		this.client = DatabaseClient.create(pool);
+	}
+
+	public Flux<ClientDTO> findAll() {
+		return client.sql(SELECT + " ORDER BY id")
+				.map((row, metadata) -> toDTO(row))
+				.all();
+	}
+
+	public Mono<ClientDTO> findById(Long id) {
+		return client.sql(SELECT + " WHERE id = :id")
+				.bind("id", id)
+				.map((row, metadata) -> toDTO(row))
+				.one();
+	}
+
+	public Flux<ClientDTO> findByIncome(Double income) {
+		return client.sql(SELECT + " WHERE income >= :income ORDER BY income, name")
+				.bind("income", income)
+				.map((row, metadata) -> toDTO(row))
+				.all();
+	}
+
+	@Override
+	public void destroy() {
+		pool.dispose();
+	}
+
+	private static ClientDTO toDTO(Row row) {
+		return new ClientDTO(
+				row.get("id", Long.class),
+				row.get("name", String.class),
+				row.get("cpf", String.class),
+				row.get("income", Double.class),
+				toInstant(row.get("birth_date")),
+				row.get("children", Integer.class),
+				row.get("version", Long.class));
+	}
+
+	// O Hibernate grava Instant como TIMESTAMP no fuso da JVM.
+	private static Instant toInstant(Object value) {
+		if (value instanceof OffsetDateTime) {
+			return ((OffsetDateTime) value).toInstant();
+		}
+		if (value instanceof LocalDateTime) {
+			return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant();
+		}
+		return (Instant) value;
+	}
+
+	private static String fromJdbcUrl(String jdbcUrl) {
+		String prefix = "jdbc:h2:mem:";
+		if (!jdbcUrl.startsWith(prefix)) {
+			throw new IllegalStateException("Set client.r2dbc.url for datasource " + jdbcUrl);
+		}
+		String name = jdbcUrl.substring(prefix.length()).split(";")[0];
+		return "r2dbc:h2:mem:///" + name;
+	}
+}
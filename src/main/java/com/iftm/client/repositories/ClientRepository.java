@@ -1,26 +1,97 @@
 package com.iftm.client.repositories;
 
 import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
 import com.iftm.client.entities.Client;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientRepositoryCustom {
+
+	String SELECT_DTO = "SELECT new com.iftm.client.dto.ClientDTO("
+			+ "obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) FROM Client obj";
 
-	@Query("SELECT DISTINCT obj FROM Client obj WHERE "
-			+ "obj.income >= :income")
-	Page<Client> findByIncome(Double income, Pageable pageable);
+	@Query(value = SELECT_DTO, countQuery = "SELECT COUNT(obj) FROM Client obj")
+	Page<ClientDTO> findAllProjected(Pageable pageable);
+	
+	@Query(value = SELECT_DTO + " WHERE obj.income >= :income",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.income >= :income")
+	Page<ClientDTO> findProjectedByIncome(Double income, Pageable pageable);
+	
+	@Query(SELECT_DTO + " WHERE obj.income >= :income")
+	Slice<ClientDTO> findProjectedSliceByIncome(Double income, Pageable pageable);
+	
+	@Query(value = SELECT_DTO + " WHERE obj.income >= :minIncome AND obj.income <= :maxIncome",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.income >= :minIncome AND obj.income <= :maxIncome")
+	Page<ClientDTO> findProjectedByIncomeRange(Double minIncome, Double maxIncome, Pageable pageable);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Client obj WHERE obj.id IN :ids")
+	int deleteByIdIn(Collection<Long> ids);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Client obj SET obj.income = obj.income * :factor, obj.version = obj.version + 1 "
+			+ "WHERE obj.income >= :minIncome AND obj.income <= :maxIncome")
+	int multiplyIncomeInRange(Double minIncome, Double maxIncome, Double factor);
+	
+	@Query(SELECT_DTO + " WHERE obj.id = :id")
+	Optional<ClientDTO> findProjectedById(Long id);
+	
+	@Query(SELECT_DTO + " WHERE obj.id IN :ids")
+	List<ClientDTO> findProjectedByIdIn(Collection<Long> ids);
 	
 	List<Client> findByNameContainingIgnoreCase(String name);
 	
-	@Query("SELECT DISTINCT obj FROM Client obj WHERE "
-            + "obj.birthDate = :birthDate OR YEAR(obj.birthDate) LIKE YEAR(:birthDate)")
-    List<Client> findByBirthDateOrYear(Instant birthDate);
+	@Query("SELECT obj FROM Client obj WHERE "
+			+ "obj.birthDate >= :start AND obj.birthDate < :end")
+	List<Client> findByBirthDateRange(Instant start, Instant end);
+	
+	@Query(value = SELECT_DTO + " WHERE obj.birthDate >= :start AND obj.birthDate < :end",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.birthDate >= :start AND obj.birthDate < :end")
+	Page<ClientDTO> findProjectedByBirthDateRange(Instant start, Instant end, Pageable pageable);
+	
+	// A data exata está sempre contida no ano dela, então basta o intervalo do ano (UTC).
+	default List<Client> findByBirthDateOrYear(Instant birthDate) {
+		Year year = Year.from(birthDate.atZone(ZoneOffset.UTC));
+		return findByBirthDateRange(year.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+				year.plusYears(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+	}
+	
+	@QueryHints(value = @QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	@Query(SELECT_DTO)
+	Stream<ClientDTO> streamAll();
+	
+	@QueryHints(value = @QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	@Query("SELECT obj.id, obj.name FROM Client obj")
+	Stream<Object[]> streamNames();
+	
+	@Query("SELECT new com.iftm.client.dto.IncomeSummaryDTO(COUNT(obj), COUNT(obj.income), SUM(obj.income), "
+			+ "AVG(obj.income), MIN(obj.income), MAX(obj.income), SUM(obj.children)) FROM Client obj")
+	IncomeSummaryDTO summarizeIncome();
+	
+	@Query("SELECT obj.children, COUNT(obj) FROM Client obj GROUP BY obj.children ORDER BY obj.children NULLS LAST")
+	List<Object[]> countByChildren();
+	
+	// Agrupar pela expressão direto repetiria o parâmetro; a tabela derivada agrupa pelo alias.
+	@Query(value = "SELECT t.band, COUNT(*) FROM (SELECT FLOOR(income / :width) AS band FROM tb_client "
+			+ "WHERE income IS NOT NULL) t GROUP BY t.band ORDER BY t.band", nativeQuery = true)
+	List<Object[]> countByIncomeBand(Double width);
 }
@@ -0,0 +1,22 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ValueCountDTO;
+
+public interface ClientRepositoryCustom {
+
+	Slice<ClientDTO> findAllAfter(String orderBy, Direction direction, Object lastValue, Long lastId, int size);
+
+	Slice<ClientDTO> findBirthDateRangeAfter(Instant start, Instant end, Direction direction,
+			Instant lastValue, Long lastId, int size);
+
+	int patch(Long id, Long version, ClientDTO changes);
+
+	List<ValueCountDTO> countByBirthYear();
+}
@@ -0,0 +1,230 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ValueCountDTO;
+import com.iftm.client.entities.Client;
+
+public class ClientRepositoryCustomImpl implements ClientRepositoryCustom {
+
+	private static final Filter NO_FILTER = (cb, root) -> cb.conjunction();
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/*
+	 * Paginação por chave (seek): primeiro os registros com valor não nulo,
+	 * ordenados por (orderBy, id), depois os registros com valor nulo ordenados
+	 * por id. O custo de uma página não depende de quantas vieram antes.
+	 */
+	@Override
+	public Slice<ClientDTO> findAllAfter(String orderBy, Direction direction, Object lastValue, Long lastId, int size) {
+		List<ClientDTO> content = new ArrayList<>(size + 1);
+		boolean nullPhase = lastId != null && lastValue == null;
+		if (!nullPhase) {
+			content.addAll(seekValues(orderBy, direction, lastValue, lastId, size + 1, NO_FILTER));
+		}
+		if (content.size() <= size) {
+			content.addAll(seekNulls(orderBy, direction, nullPhase ? lastId : null, size + 1 - content.size()));
+		}
+		boolean hasNext = content.size() > size;
+		if (hasNext) {
+			content = content.subList(0, size);
+		}
+		return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(direction, orderBy, "id")), hasNext);
+	}
+
+	/*
+	 * Faixa semiaberta [start, end) de birthDate percorrida por (birthDate, id);
+	 * registros sem data de nascimento ficam fora da faixa.
+	 */
+	@Override
+	public Slice<ClientDTO> findBirthDateRangeAfter(Instant start, Instant end, Direction direction,
+			Instant lastValue, Long lastId, int size) {
+		List<ClientDTO> content = seekValues("birthDate", direction, lastValue, lastId, size + 1,
+				(cb, root) -> cb.and(
+						cb.greaterThanOrEqualTo(root.<Instant>get("birthDate"), start),
+						cb.lessThan(root.<Instant>get("birthDate"), end)));
+		boolean hasNext = content.size() > size;
+		if (hasNext) {
+			content = content.subList(0, size);
+		}
+		return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(direction, "birthDate", "id")), hasNext);
+	}
+
+	/*
+	 * UPDATE único com apenas os campos não nulos de changes, incrementando a
+	 * versão. Com version informada, só atualiza se a versão no banco for a
+	 * mesma. Retorna a quantidade de linhas alteradas (0 ou 1).
+	 */
+	@Override
+	public int patch(Long id, Long version, ClientDTO changes) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Client> update = cb.createCriteriaUpdate(Client.class);
+		Root<Client> root = update.from(Client.class);
+		if (changes.getName() != null) {
+			update.set(root.<String>get("name"), changes.getName());
+		}
+		if (changes.getCpf() != null) {
+			update.set(root.<String>get("cpf"), changes.getCpf());
+		}
+		if (changes.getIncome() != null) {
+			update.set(root.<Double>get("income"), changes.getIncome());
+		}
+		if (changes.getBirthDate() != null) {
+			update.set(root.<Instant>get("birthDate"), changes.getBirthDate());
+		}
+		if (changes.getChildren() != null) {
+			update.set(root.<Integer>get("children"), changes.getChildren());
+		}
+		Path<Long> currentVersion = root.get("version");
+		update.set(currentVersion, cb.sum(currentVersion, 1L));
+		if (version == null) {
+			update.where(cb.equal(root.get("id"), id));
+		} else {
+			update.where(cb.equal(root.get("id"), id), cb.equal(currentVersion, version));
+		}
+		return entityManager.createQuery(update).executeUpdate();
+	}
+
+	/*
+	 * Quantidade de clientes por ano de nascimento em UTC, em ordem de ano, e
+	 * os sem data por último. O banco guarda o horário no fuso da JVM, então o
+	 * ano não sai de EXTRACT(YEAR): a primeira consulta acha os anos extremos e
+	 * a segunda conta, numa única passada, cada faixa semiaberta [1º de janeiro,
+	 * 1º de janeiro seguinte) em UTC. Só uma linha sai do banco em cada uma.
+	 */
+	@Override
+	public List<ValueCountDTO> countByBirthYear() {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Object[]> bounds = cb.createQuery(Object[].class);
+		Root<Client> root = bounds.from(Client.class);
+		Path<Instant> birthDate = root.get("birthDate");
+		bounds.multiselect(cb.least(birthDate), cb.greatest(birthDate), cb.count(root), cb.count(birthDate));
+		Object[] range = entityManager.createQuery(bounds).getSingleResult();
+
+		List<ValueCountDTO> result = new ArrayList<>();
+		if (range[0] != null) {
+			int first = ((Instant) range[0]).atZone(ZoneOffset.UTC).getYear();
+			int last = ((Instant) range[1]).atZone(ZoneOffset.UTC).getYear();
+			long[] counts = first == last ? new long[] { (Long) range[3] } : countPerYear(first, last);
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) {
+					result.add(new ValueCountDTO((long) (first + i), counts[i]));
+				}
+			}
+		}
+		long missing = (Long) range[2] - (Long) range[3];
+		if (missing > 0) {
+			result.add(new ValueCountDTO(null, missing));
+		}
+		return result;
+	}
+
+	// Uma coluna SUM(CASE ...) por ano entre first e last (first < last).
+	private long[] countPerYear(int first, int last) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+		Path<Instant> birthDate = query.from(Client.class).get("birthDate");
+		List<Selection<?>> years = new ArrayList<>(last - first + 1);
+		for (int year = first; year <= last; year++) {
+			Predicate inYear = cb.and(
+					cb.greaterThanOrEqualTo(birthDate, startOfYear(year)),
+					cb.lessThan(birthDate, startOfYear(year + 1)));
+			years.add(cb.sum(cb.<Long>selectCase().when(inYear, 1L).otherwise(0L)));
+		}
+		query.multiselect(years);
+		Object[] row = entityManager.createQuery(query).getSingleResult();
+		long[] counts = new long[row.length];
+		for (int i = 0; i < row.length; i++) {
+			counts[i] = ((Number) row[i]).longValue();
+		}
+		return counts;
+	}
+
+	private static Instant startOfYear(int year) {
+		return Year.of(year).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+	}
+
+	private List<ClientDTO> seekValues(String orderBy, Direction direction, Object lastValue, Long lastId, int limit,
+			Filter filter) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<ClientDTO> query = cb.createQuery(ClientDTO.class);
+		Root<Client> root = query.from(Client.class);
+		query.select(selectDTO(cb, root));
+		Path<Object> key = root.get(orderBy);
+		Path<Object> id = root.get("id");
+
+		if (lastId == null) {
+			query.where(cb.isNotNull(key), filter.apply(cb, root));
+		} else {
+			query.where(cb.or(
+					after(cb, key, lastValue, direction),
+					cb.and(cb.equal(key, lastValue), after(cb, id, lastId, direction))),
+					filter.apply(cb, root));
+		}
+		query.orderBy(order(cb, key, direction), order(cb, id, direction));
+		return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+	}
+
+	private List<ClientDTO> seekNulls(String orderBy, Direction direction, Long lastId, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<ClientDTO> query = cb.createQuery(ClientDTO.class);
+		Root<Client> root = query.from(Client.class);
+		query.select(selectDTO(cb, root));
+		Path<Object> key = root.get(orderBy);
+		Path<Object> id = root.get("id");
+
+		if (lastId == null) {
+			query.where(cb.isNull(key));
+		} else {
+			query.where(cb.isNull(key), after(cb, id, lastId, direction));
+		}
+		query.orderBy(order(cb, id, direction));
+		return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Predicate after(CriteriaBuilder cb, Expression path, Object value, Direction direction) {
+		return direction.isAscending()
+				? cb.greaterThan(path, (Comparable) value)
+				: cb.lessThan(path, (Comparable) value);
+	}
+
+	private CompoundSelection<ClientDTO> selectDTO(CriteriaBuilder cb, Root<Client> root) {
+		return cb.construct(ClientDTO.class, root.get("id"), root.get("name"), root.get("cpf"),
+				root.get("income"), root.get("birthDate"), root.get("children"), root.get("version"));
+	}
+
+	private Order order(CriteriaBuilder cb, Expression<?> path, Direction direction) {
+		return direction.isAscending() ? cb.asc(path) : cb.desc(path);
+	}
+
+	private interface Filter {
+		Predicate apply(CriteriaBuilder cb, Root<Client> root);
+	}
+}
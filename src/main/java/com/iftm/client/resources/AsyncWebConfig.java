@@ -0,0 +1,48 @@
+package com.iftm.client.resources;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.iftm.client.metrics.QueryCountInspector;
+
+/*
+ * Executor limitado para as chamadas bloqueantes de JDBC feitas pelo
+ * ClientAsyncResource. O tamanho acompanha o pool de conexões: mais threads só
+ * ficariam esperando conexão. Fila cheia é recusada (503). Os dois executores
+ * levam o contador de SQL da requisição (QueryCountInspector) para as tarefas.
+ */
+@Configuration
+public class AsyncWebConfig {
+
+	/*
+	 * Qualquer Executor declarado desliga o executor padrão do Spring Boot, que
+	 * o MVC usa nas respostas assíncronas (ex.: StreamingResponseBody do
+	 * export); por isso ele é declarado de novo aqui, igual ao do Boot.
+	 */
+	@Lazy
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+		return builder.taskDecorator(QueryCountInspector::decorate).build();
+	}
+
+	@Bean(name = "clientJdbcExecutor")
+	public ThreadPoolTaskExecutor clientJdbcExecutor(
+			@Value("${client.async.jdbc-threads:10}") int threads,
+			@Value("${client.async.queue-capacity:2000}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("client-jdbc-");
+		executor.setTaskDecorator(QueryCountInspector::decorate);
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+}
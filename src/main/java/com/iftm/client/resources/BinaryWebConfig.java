@@ -0,0 +1,30 @@
+package com.iftm.client.resources;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.iftm.client.resources.converters.ClientBinaryHttpMessageConverter;
+
+/*
+ * Registrado no fim da lista (e não como @Bean, que o Spring Boot colocaria
+ * antes do Jackson): com Accept genérico ou sem Accept a resposta continua em
+ * JSON. Como a mesma URL tem mais de uma representação, toda resposta de
+ * /clients leva Vary: Accept.
+ */
+@Configuration
+public class BinaryWebConfig implements WebMvcConfigurer {
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new ClientBinaryHttpMessageConverter());
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new VaryByAcceptInterceptor()).addPathPatterns("/clients/**");
+	}
+}
@@ -0,0 +1,69 @@
+package com.iftm.client.resources;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
+import com.iftm.client.dto.NameCountDTO;
+import com.iftm.client.dto.ValueCountDTO;
+import com.iftm.client.services.analytics.ClientAnalytics;
+import com.iftm.client.services.exceptions.ServiceUnavailableException;
+
+/*
+ * Agregações calculadas sobre a cópia em memória do ClientAnalytics, sem
+ * consultar o banco. Até a primeira carga terminar responde 503.
+ */
+@RestController
+@RequestMapping(value = "/clients/analytics")
+public class ClientAnalyticsResource {
+
+	@Autowired
+	private ClientAnalytics analytics;
+
+	@GetMapping(value = "/summary")
+	public ResponseEntity<IncomeSummaryDTO> summary() {
+		checkReady();
+		return ResponseEntity.ok().body(analytics.summary());
+	}
+
+	@GetMapping(value = "/income-histogram")
+	public ResponseEntity<List<IncomeBucketDTO>> incomeHistogram(
+			@RequestParam(value = "width", defaultValue = "1000") Double width)
+	{
+		checkReady();
+		return ResponseEntity.ok().body(analytics.incomeHistogram(width));
+	}
+
+	@GetMapping(value = "/birth-years")
+	public ResponseEntity<List<ValueCountDTO>> birthYears() {
+		checkReady();
+		return ResponseEntity.ok().body(analytics.birthYears());
+	}
+
+	@GetMapping(value = "/children")
+	public ResponseEntity<List<ValueCountDTO>> children() {
+		checkReady();
+		return ResponseEntity.ok().body(analytics.children());
+	}
+
+	@GetMapping(value = "/names")
+	public ResponseEntity<List<NameCountDTO>> topNames(
+			@RequestParam(value = "limit", defaultValue = "10") Integer limit)
+	{
+		checkReady();
+		return ResponseEntity.ok().body(analytics.topNames(limit));
+	}
+
+	private void checkReady() {
+		if (!analytics.isReady()) {
+			throw new ServiceUnavailableException("Analytics snapshot is still loading");
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.iftm.client.resources;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.parallel.ParallelPipeline;
+
+/*
+ * Mesmas leituras do ClientResource, mas a thread do Tomcat é liberada logo:
+ * o trabalho roda no clientJdbcExecutor e a resposta sai quando o
+ * CompletableFuture completa. A concorrência deixa de depender do pool do
+ * Tomcat e passa a ser limitada pelo executor (e pelo pool de conexões).
+ */
+@RestController
+@RequestMapping(value = "/clients/async")
+public class ClientAsyncResource {
+
+	@Autowired
+	private ClientService service;
+
+	@Autowired
+	@Qualifier("clientJdbcExecutor")
+	private ThreadPoolTaskExecutor executor;
+
+	@Autowired
+	private ParallelPipeline pipeline;
+
+	@GetMapping
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findAll(
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		return CompletableFuture.supplyAsync(() -> ResponseEntity.ok().body(pipeline.forJson(service.findAllPaged(pageRequest))), executor);
+	}
+
+	@GetMapping(value = "/find-by-income")
+	public CompletableFuture<ResponseEntity<Slice<ClientDTO>>> findByIncome(
+			@RequestParam(value = "income", defaultValue ="") Double income,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "count", defaultValue = "true") Boolean count) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		return CompletableFuture.supplyAsync(() -> {
+			Slice<ClientDTO> list = count
+					? service.findByIncome(income, pageRequest)
+					: service.findSliceByIncome(income, pageRequest);
+			return ResponseEntity.ok().body(pipeline.forJson(list));
+		}, executor);
+	}
+
+	@GetMapping(value = "/{id}")
+	public CompletableFuture<ResponseEntity<ClientDTO>> findById(@PathVariable Long id) {
+		return CompletableFuture.supplyAsync(() -> ResponseEntity.ok().body(service.findById(id)), executor);
+	}
+}
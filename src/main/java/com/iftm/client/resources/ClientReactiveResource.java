@@ -0,0 +1,47 @@
+package com.iftm.client.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientReactiveRepository;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Leituras reativas (R2DBC) servidas pelo próprio Spring MVC. Com
+ * application/x-ndjson ou text/event-stream cada cliente é escrito assim que
+ * chega e o próximo só é pedido ao banco depois da escrita (backpressure).
+ * As listagens não oferecem application/json: o MVC juntaria o Flux inteiro
+ * numa lista em memória; para um array JSON há o /clients/findAll (export).
+ */
+@RestController
+@RequestMapping(value = "/clients/reactive")
+public class ClientReactiveResource {
+
+	@Autowired
+	private ClientReactiveRepository repository;
+
+	@GetMapping(produces = { "application/x-ndjson", MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<ClientDTO> findAll() {
+		return repository.findAll();
+	}
+
+	@GetMapping(value = "/find-by-income", produces = { "application/x-ndjson", MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<ClientDTO> findByIncome(@RequestParam(value = "income", defaultValue = "0") Double income) {
+		return repository.findByIncome(income);
+	}
+
+	@GetMapping(value = "/{id}")
+	public Mono<ClientDTO> findById(@PathVariable Long id) {
+		return repository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Entity not found")));
+	}
+}
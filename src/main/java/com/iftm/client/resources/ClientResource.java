@@ -1,105 +1,373 @@
 package com.iftm.client.resources;
 
+import java.io.IOException;
 import java.net.URI;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.BulkResultDTO;
+import com.iftm.client.dto.CacheStatsDTO;
 import com.iftm.client.dto.ClientDTO;
-import com.iftm.client.entities.Client;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeAdjustmentDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
+import com.iftm.client.dto.IngestionStatusDTO;
+import com.iftm.client.dto.ValueCountDTO;
+import com.iftm.client.resources.converters.ClientBinaryHttpMessageConverter;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.ExportFormat;
+import com.iftm.client.services.cache.ClientJson;
+import com.iftm.client.services.cache.ClientJsonCache;
+import com.iftm.client.services.exceptions.BadRequestException;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
+import com.iftm.client.services.ingestion.ClientIngestionService;
+import com.iftm.client.services.parallel.ParallelPipeline;
 
 @RestController
 @RequestMapping(value = "/clients")
 public class ClientResource {
 	
+	private static final String BINARY_ETAG_SUFFIX = "-bin";
+	
 	@Autowired
 	private ClientService service;
+	
+	@Autowired
+	private ClientIngestionService ingestionService;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private ParallelPipeline pipeline;
+	
+	@Autowired
+	private ClientJsonCache jsonCache;
 
 	@GetMapping
 	public ResponseEntity<Page<ClientDTO>> findAll(
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			WebRequest request) 
 	{
+		if (request.checkNotModified(eTag(service.listETag(), acceptsBinary(accept)), service.listLastModified())) {
+			return null;
+		}
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
 		Page<ClientDTO> list = service.findAllPaged(pageRequest);
+		return ResponseEntity.ok().body(pipeline.forJson(list));
+	}
+	
+	@GetMapping(value = "/seek")
+	public ResponseEntity<CursorPageDTO<ClientDTO>> findAllSeek(
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		CursorPageDTO<ClientDTO> list = service.findAllSeek(cursor, linesPerPage, Direction.valueOf(direction), orderBy);
 		return ResponseEntity.ok().body(list);
 	}
 	
 	@GetMapping(value = "/find-by-income")
-	public ResponseEntity<Page<ClientDTO>> findByIncome(
+	public ResponseEntity<Slice<ClientDTO>> findByIncome(
 			@RequestParam(value = "income", defaultValue ="") Double income,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "count", defaultValue = "true") Boolean count,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			WebRequest request) 
+	{
+		if (request.checkNotModified(eTag(service.listETag(), acceptsBinary(accept)), service.listLastModified())) {
+			return null;
+		}
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		Slice<ClientDTO> list = count
+				? service.findByIncome(income, pageRequest)
+				: service.findSliceByIncome(income, pageRequest);
+		return ResponseEntity.ok().body(pipeline.forJson(list));
+	}
+	
+	@GetMapping(value = "/find-by-income-range")
+	public ResponseEntity<Page<ClientDTO>> findByIncomeRange(
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
 			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
 	{
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByIncome(income, pageRequest);
+		Page<ClientDTO> list = service.findByIncomeRange(minIncome, maxIncome, pageRequest);
 		return ResponseEntity.ok().body(list);
 	}
 	
 	@GetMapping(value = "/findAll")
-	public ResponseEntity<List<ClientDTO>> findAll() {
-		List<ClientDTO> list = service.findAll();
-		return ResponseEntity.ok().body(list);
+	public ResponseEntity<StreamingResponseBody> findAll() {
+		return stream(ExportFormat.JSON);
+	}
+	
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@RequestParam(value = "format", defaultValue = "NDJSON") String format) 
+	{
+		try {
+			return stream(ExportFormat.valueOf(format.toUpperCase()));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Unsupported export format " + format);
+		}
+	}
+	
+	private ResponseEntity<StreamingResponseBody> stream(ExportFormat format) {
+		StreamingResponseBody body = out -> service.export(format, out);
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(format.getMediaType())).body(body);
+	}
+	
+	@GetMapping(value = "/cache/stats")
+	public ResponseEntity<CacheStatsDTO> cacheStats() {
+		CacheStatsDTO stats = service.cacheStats();
+		return ResponseEntity.ok().body(stats);
+	}
+	
+	@GetMapping(value = "/stats/income")
+	public ResponseEntity<IncomeSummaryDTO> incomeStats() {
+		return ResponseEntity.ok().body(service.incomeStats());
+	}
+	
+	@GetMapping(value = "/stats/income-bands")
+	public ResponseEntity<List<IncomeBucketDTO>> incomeBandStats(
+			@RequestParam(value = "width", defaultValue = "1000") Double width)
+	{
+		return ResponseEntity.ok().body(service.incomeBandStats(width));
+	}
+	
+	@GetMapping(value = "/stats/birth-years")
+	public ResponseEntity<List<ValueCountDTO>> birthYearStats() {
+		return ResponseEntity.ok().body(service.birthYearStats());
 	}
 	
+	@GetMapping(value = "/stats/children")
+	public ResponseEntity<List<ValueCountDTO>> childrenStats() {
+		return ResponseEntity.ok().body(service.childrenStats());
+	}
+	
+	/*
+	 * Com ETag na resposta, o Spring devolve 304 quando o If-None-Match confere.
+	 * O JSON fica guardado já serializado: num acerto os bytes vão direto para a
+	 * resposta, sem passar pelo Jackson.
+	 */
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> findById(@PathVariable Long id) {
-		ClientDTO dto = service.findById(id);
-		return ResponseEntity.ok().body(dto);
+	public ResponseEntity<?> findById(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws IOException {
+		if (acceptsBinary(accept)) {
+			ClientDTO dto = service.findById(id);
+			return ResponseEntity.ok().contentType(ClientBinaryHttpMessageConverter.MEDIA_TYPE)
+					.eTag(eTag(eTag(dto), true)).body(dto);
+		}
+		ClientJson json = jsonCache.get(id);
+		if (json == null) {
+			long stamp = jsonCache.stamp();
+			ClientDTO dto = service.findById(id);
+			json = new ClientJson(objectMapper.writeValueAsBytes(dto), dto.getVersion());
+			jsonCache.put(id, json, stamp);
+		}
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(eTag(json.getVersion())).body(json.getBody());
 	}
 	
 	@GetMapping(value = "/name/{name}")
-	public List<Client> findByNameContainingIgnoreCase(@PathVariable String name) {
-		return service.findByNameContainingIgnoreCase(name);
+	public ResponseEntity<Page<ClientDTO>> findByName(
+			@PathVariable String name,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage);
+		Page<ClientDTO> list = service.findByName(name, pageRequest);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(value = "/name/{name}/seek")
+	public ResponseEntity<CursorPageDTO<ClientDTO>> findByNameSeek(
+			@PathVariable String name,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage) 
+	{
+		CursorPageDTO<ClientDTO> list = service.findByNameSeek(name, cursor, linesPerPage);
+		return ResponseEntity.ok().body(list);
 	}
 	
 	@GetMapping(value = "/date/{date}")
-    public List<Client> findByBirthDateOrYear(@PathVariable String date) throws ParseException {
-        SimpleDateFormat format;
-        if(date.length() == 4) {
-        	format = new SimpleDateFormat("yyyy");
-        } else {
-        	format = new SimpleDateFormat("yyyy-MM-dd");
-        }
+	public ResponseEntity<Page<ClientDTO>> findByBirthDateOrYear(
+			@PathVariable String date,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "birthDate") String orderBy) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		Year year;
+		try {
+			year = date.length() == 4 ? Year.parse(date) : Year.from(LocalDate.parse(date));
+		} catch (DateTimeParseException e) {
+			throw new BadRequestException("Invalid date " + date);
+		}
+		Page<ClientDTO> list = service.findByBirthYear(year, pageRequest);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	// Intervalo semiaberto [start, end), datas no formato yyyy-MM-dd em UTC.
+	@GetMapping(value = "/date")
+	public ResponseEntity<Page<ClientDTO>> findByBirthDateRange(
+			@RequestParam(value = "start") String start,
+			@RequestParam(value = "end") String end,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "birthDate") String orderBy) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		Page<ClientDTO> list;
+		try {
+			list = service.findByBirthDateRange(LocalDate.parse(start), LocalDate.parse(end), pageRequest);
+		} catch (DateTimeParseException e) {
+			throw new BadRequestException("Invalid date " + e.getParsedString());
+		}
+		return ResponseEntity.ok().body(list);
+	}
 
-        Date newDate = format.parse(date);
-        return service.findByBirthDateOrYear(newDate.toInstant());
-    }
+	@GetMapping(value = "/date/seek")
+	public ResponseEntity<CursorPageDTO<ClientDTO>> findByBirthDateRangeSeek(
+			@RequestParam(value = "start") String start,
+			@RequestParam(value = "end") String end,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction) 
+	{
+		CursorPageDTO<ClientDTO> list;
+		try {
+			list = service.findByBirthDateRangeSeek(LocalDate.parse(start), LocalDate.parse(end), cursor,
+					linesPerPage, Direction.valueOf(direction));
+		} catch (DateTimeParseException e) {
+			throw new BadRequestException("Invalid date " + e.getParsedString());
+		}
+		return ResponseEntity.ok().body(list);
+	}
 
+	/*
+	 * Com client.ingestion.enabled ou "Prefer: respond-async" a inserção vai
+	 * para a fila de ingestão e a resposta é 202 com o endereço do status.
+	 */
 	@PostMapping
-	public ResponseEntity<ClientDTO> insert(@RequestBody ClientDTO dto) {
+	public ResponseEntity<?> insert(@RequestBody ClientDTO dto,
+			@RequestHeader(value = "Prefer", required = false) String prefer) 
+	{
+		if (ingestionService.isEnabled() || (prefer != null && prefer.contains("respond-async"))) {
+			IngestionStatusDTO status = ingestionService.enqueue(dto);
+			URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/ingestion/{trackingId}")
+					.buildAndExpand(status.getTrackingId()).toUri();
+			return ResponseEntity.accepted().location(uri).body(status);
+		}
 		dto = service.insert(dto);
 		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
 				.buildAndExpand(dto.getId()).toUri();
 		return ResponseEntity.created(uri).body(dto);
 	}
 	
+	@GetMapping(value = "/ingestion/{trackingId}")
+	public ResponseEntity<IngestionStatusDTO> ingestionStatus(@PathVariable String trackingId) {
+		IngestionStatusDTO status = ingestionService.getStatus(trackingId);
+		return ResponseEntity.ok().body(status);
+	}
+	
+	@PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<BatchInsertResultDTO> insertAll(@RequestBody List<ClientDTO> dtos) {
+		BatchInsertResultDTO result = service.insertAll(dtos.iterator());
+		return ResponseEntity.ok().body(result);
+	}
+	
+	/*
+	 * Os blocos são gravados à medida que o corpo é lido. Uma linha inválida
+	 * encerra a leitura: o que veio antes dela é gravado normalmente e a
+	 * resposta (400) traz o relatório parcial com o erro.
+	 */
+	@PostMapping(value = "/batch", consumes = "application/x-ndjson")
+	public ResponseEntity<BatchInsertResultDTO> insertAllNdjson(HttpServletRequest request) throws IOException {
+		try (MappingIterator<ClientDTO> lines = objectMapper.readerFor(ClientDTO.class).readValues(request.getInputStream())) {
+			NdjsonIterator dtos = new NdjsonIterator(lines);
+			BatchInsertResultDTO result = service.insertAll(dtos);
+			if (dtos.error != null) {
+				result.setParseError(dtos.error);
+				return ResponseEntity.badRequest().body(result);
+			}
+			return ResponseEntity.ok().body(result);
+		}
+	}
+	
+	@PostMapping(value = "/batch-delete")
+	public ResponseEntity<BulkResultDTO> deleteAll(@RequestBody List<Long> ids) {
+		BulkResultDTO result = service.deleteAll(ids);
+		return ResponseEntity.ok().body(result);
+	}
+	
+	@PostMapping(value = "/income-adjustment")
+	public ResponseEntity<BulkResultDTO> adjustIncome(@RequestBody IncomeAdjustmentDTO dto) {
+		BulkResultDTO result = service.adjustIncome(dto);
+		return ResponseEntity.ok().body(result);
+	}
+	
 	@PutMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto) {
-		dto = service.update(id, dto);
-		return ResponseEntity.ok().body(dto);
+	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) 
+	{
+		dto = service.update(id, dto, hasIfMatch(ifMatch) ? version(ifMatch) : null);
+		return ResponseEntity.ok().eTag(eTag(dto)).body(dto);
+	}
+	
+	// If-Match divergente é 412 e versão só no corpo divergente é 409, no PUT e no PATCH (ver ClientService).
+	@PatchMapping(value = "/{id}")
+	public ResponseEntity<ClientDTO> patch(@PathVariable Long id, @RequestBody ClientDTO dto,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		dto = service.patch(id, dto, hasIfMatch(ifMatch) ? version(ifMatch) : null);
+		return ResponseEntity.ok().eTag(eTag(dto)).body(dto);
 	}
 	
 	@DeleteMapping(value = "/{id}")
@@ -107,4 +375,107 @@ public class ClientResource {
 		service.delete(id);
 		return ResponseEntity.noContent().build();
 	}
+	
+	// O cache de JSON fixa o Content-Type; o formato binário só é usado quando pedido explicitamente.
+	// Mesma escolha da negociação do MVC: vale o tipo preferido entre o binário e os que aceitam JSON.
+	private static boolean acceptsBinary(String accept) {
+		if (accept == null) {
+			return false;
+		}
+		List<MediaType> types;
+		try {
+			types = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			// Accept inválido: fica com o JSON; a negociação do MVC decide a resposta.
+			return false;
+		}
+		MediaType.sortBySpecificityAndQuality(types);
+		for (MediaType type : types) {
+			if (ClientBinaryHttpMessageConverter.MEDIA_TYPE.equalsTypeAndSubtype(type)) {
+				return true;
+			}
+			if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				return false;
+			}
+		}
+		return false;
+	}
+	
+	/*
+	 * Cada representação tem a sua ETag: a binária ganha o sufixo -bin dentro
+	 * das aspas (ex.: "3-bin", W/"12-0-bin"), assim um If-None-Match de uma
+	 * nunca devolve 304 para a outra.
+	 */
+	private static String eTag(String eTag, boolean binary) {
+		return eTag == null || !binary ? eTag : eTag.substring(0, eTag.length() - 1) + BINARY_ETAG_SUFFIX + "\"";
+	}
+	
+	private static String eTag(ClientDTO dto) {
+		return eTag(dto.getVersion());
+	}
+	
+	private static String eTag(Long version) {
+		return "\"" + version + "\"";
+	}
+	
+	// If-Match exige comparação forte: ETags fracas (W/) nunca conferem.
+	private static boolean hasIfMatch(String ifMatch) {
+		return ifMatch != null && !ifMatch.trim().equals("*");
+	}
+	
+	private static Long version(String ifMatch) {
+		String tag = ifMatch.trim();
+		if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+			throw new PreconditionFailedException("If-Match must be a strong ETag");
+		}
+		String value = tag.substring(1, tag.length() - 1);
+		if (value.endsWith(BINARY_ETAG_SUFFIX)) {
+			value = value.substring(0, value.length() - BINARY_ETAG_SUFFIX.length());
+		}
+		try {
+			return Long.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new PreconditionFailedException("If-Match does not match any version");
+		}
+	}
+	
+	// Lê uma linha adiantada para que um erro de parse vire fim da leitura, e não exceção no meio do bloco.
+	private static class NdjsonIterator implements Iterator<ClientDTO> {
+		
+		private final MappingIterator<ClientDTO> lines;
+		private ClientDTO pending;
+		private String error;
+		
+		NdjsonIterator(MappingIterator<ClientDTO> lines) {
+			this.lines = lines;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			if (pending != null) {
+				return true;
+			}
+			if (error != null) {
+				return false;
+			}
+			try {
+				if (lines.hasNext()) {
+					pending = lines.next();
+				}
+			} catch (RuntimeJsonMappingException e) {
+				error = "Malformed NDJSON at line " + lines.getCurrentLocation().getLineNr() + ": " + e.getMessage();
+			}
+			return pending != null;
+		}
+		
+		@Override
+		public ClientDTO next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			ClientDTO dto = pending;
+			pending = null;
+			return dto;
+		}
+	}
 }
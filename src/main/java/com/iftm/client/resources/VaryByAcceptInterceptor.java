@@ -0,0 +1,23 @@
+package com.iftm.client.resources;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/*
+ * As respostas de /clients dependem do Accept (JSON, binário, NDJSON...).
+ * O Vary vai já no preHandle para sair também nos 304 do checkNotModified e
+ * nos redespachos assíncronos, sem repetir o valor.
+ */
+public class VaryByAcceptInterceptor implements HandlerInterceptor {
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,221 @@
+package com.iftm.client.resources.converters;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Formato binário de clientes. Inteiros são varints (zigzag, como no
+ * protobuf), datas são epoch millis, textos são UTF-8 prefixados pelo
+ * tamanho e income é um double de 8 bytes. Cada cliente começa com um byte
+ * de presença (um bit por campo), então campos nulos não ocupam nada.
+ *
+ *   documento = tipo (1 byte) corpo
+ *   'C' cliente
+ *   'L' quantidade, clientes
+ *   'S' página, tamanho, hasNext (1 byte), quantidade, clientes
+ *   'P' página, tamanho, total, quantidade, clientes
+ */
+public final class ClientBinaryCodec {
+
+	private static final byte CLIENT = 'C';
+	private static final byte LIST = 'L';
+	private static final byte SLICE = 'S';
+	private static final byte PAGE = 'P';
+
+	private static final int HAS_ID = 1;
+	private static final int HAS_NAME = 1 << 1;
+	private static final int HAS_CPF = 1 << 2;
+	private static final int HAS_INCOME = 1 << 3;
+	private static final int HAS_BIRTH_DATE = 1 << 4;
+	private static final int HAS_CHILDREN = 1 << 5;
+	private static final int HAS_VERSION = 1 << 6;
+
+	private ClientBinaryCodec() {
+	}
+
+	public static void write(ClientDTO dto, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeByte(CLIENT);
+		writeClient(dto, data);
+		data.flush();
+	}
+
+	public static void write(Collection<? extends ClientDTO> clients, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeByte(LIST);
+		writeClients(clients, data);
+		data.flush();
+	}
+
+	public static void write(Slice<? extends ClientDTO> slice, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		if (slice instanceof Page) {
+			data.writeByte(PAGE);
+			writeVarLong(data, slice.getNumber());
+			writeVarLong(data, slice.getSize());
+			writeVarLong(data, ((Page<?>) slice).getTotalElements());
+		} else {
+			data.writeByte(SLICE);
+			writeVarLong(data, slice.getNumber());
+			writeVarLong(data, slice.getSize());
+			data.writeBoolean(slice.hasNext());
+		}
+		writeClients(slice.getContent(), data);
+		data.flush();
+	}
+
+	// Devolve um ClientDTO, uma List<ClientDTO> ou um Slice/Page<ClientDTO>.
+	public static Object read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		byte type = data.readByte();
+		switch (type) {
+		case CLIENT:
+			return readClient(data);
+		case LIST:
+			return readClients(data);
+		case PAGE: {
+			Pageable pageable = readPageable(data);
+			long total = readVarLong(data);
+			return new PageImpl<>(readClients(data), pageable, total);
+		}
+		case SLICE: {
+			Pageable pageable = readPageable(data);
+			boolean hasNext = data.readBoolean();
+			return new SliceImpl<>(readClients(data), pageable, hasNext);
+		}
+		default:
+			throw new IOException("Unknown document type " + type);
+		}
+	}
+
+	private static void writeClients(Collection<? extends ClientDTO> clients, DataOutputStream data) throws IOException {
+		writeVarLong(data, clients.size());
+		for (ClientDTO dto : clients) {
+			writeClient(dto, data);
+		}
+	}
+
+	private static void writeClient(ClientDTO dto, DataOutputStream data) throws IOException {
+		int flags = (dto.getId() != null ? HAS_ID : 0)
+				| (dto.getName() != null ? HAS_NAME : 0)
+				| (dto.getCpf() != null ? HAS_CPF : 0)
+				| (dto.getIncome() != null ? HAS_INCOME : 0)
+				| (dto.getBirthDate() != null ? HAS_BIRTH_DATE : 0)
+				| (dto.getChildren() != null ? HAS_CHILDREN : 0)
+				| (dto.getVersion() != null ? HAS_VERSION : 0);
+		data.writeByte(flags);
+		if (dto.getId() != null) {
+			writeVarLong(data, dto.getId());
+		}
+		if (dto.getName() != null) {
+			writeString(data, dto.getName());
+		}
+		if (dto.getCpf() != null) {
+			writeString(data, dto.getCpf());
+		}
+		if (dto.getIncome() != null) {
+			data.writeDouble(dto.getIncome());
+		}
+		if (dto.getBirthDate() != null) {
+			writeVarLong(data, dto.getBirthDate().toEpochMilli());
+		}
+		if (dto.getChildren() != null) {
+			writeVarLong(data, dto.getChildren());
+		}
+		if (dto.getVersion() != null) {
+			writeVarLong(data, dto.getVersion());
+		}
+	}
+
+	private static List<ClientDTO> readClients(DataInputStream data) throws IOException {
+		int count = (int) readVarLong(data);
+		List<ClientDTO> clients = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			clients.add(readClient(data));
+		}
+		return clients;
+	}
+
+	private static ClientDTO readClient(DataInputStream data) throws IOException {
+		int flags = data.readUnsignedByte();
+		ClientDTO dto = new ClientDTO();
+		if ((flags & HAS_ID) != 0) {
+			dto.setId(readVarLong(data));
+		}
+		if ((flags & HAS_NAME) != 0) {
+			dto.setName(readString(data));
+		}
+		if ((flags & HAS_CPF) != 0) {
+			dto.setCpf(readString(data));
+		}
+		if ((flags & HAS_INCOME) != 0) {
+			dto.setIncome(data.readDouble());
+		}
+		if ((flags & HAS_BIRTH_DATE) != 0) {
+			dto.setBirthDate(Instant.ofEpochMilli(readVarLong(data)));
+		}
+		if ((flags & HAS_CHILDREN) != 0) {
+			dto.setChildren((int) readVarLong(data));
+		}
+		if ((flags & HAS_VERSION) != 0) {
+			dto.setVersion(readVarLong(data));
+		}
+		return dto;
+	}
+
+	private static Pageable readPageable(DataInputStream data) throws IOException {
+		int number = (int) readVarLong(data);
+		int size = (int) readVarLong(data);
+		return size > 0 ? PageRequest.of(number, size) : Pageable.unpaged();
+	}
+
+	private static void writeString(DataOutputStream data, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(data, bytes.length);
+		data.write(bytes);
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		byte[] bytes = new byte[(int) readVarLong(data)];
+		data.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			data.writeByte((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		data.writeByte((int) zigzag);
+	}
+
+	private static long readVarLong(DataInputStream data) throws IOException {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = data.readUnsignedByte();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+}
@@ -0,0 +1,104 @@
+package com.iftm.client.resources.converters;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Escreve ClientDTO, coleções de ClientDTO e Slice/Page<ClientDTO> no formato
+ * do ClientBinaryCodec quando o cliente pede MEDIA_TYPE no Accept. Fica depois
+ * do conversor JSON, então sem Accept explícito a resposta continua em JSON.
+ */
+public class ClientBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final String MEDIA_TYPE_VALUE = "application/x-client-binary";
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+	private static final int BUFFER_SIZE = 8192;
+
+	public ClientBinaryHttpMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ClientDTO.class.isAssignableFrom(clazz)
+				|| Collection.class.isAssignableFrom(clazz)
+				|| Slice.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected boolean canRead(MediaType mediaType) {
+		return false;
+	}
+
+	// Coleções e páginas só quando o tipo declarado diz que o conteúdo é ClientDTO.
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		if (!canWrite(mediaType)) {
+			return false;
+		}
+		if (ClientDTO.class.isAssignableFrom(clazz)) {
+			return true;
+		}
+		ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+		if (Slice.class.isAssignableFrom(clazz)) {
+			return isClientDTO(resolved.as(Slice.class).resolveGeneric(0));
+		}
+		if (Collection.class.isAssignableFrom(clazz)) {
+			return isClientDTO(resolved.as(Collection.class).resolveGeneric(0));
+		}
+		return false;
+	}
+
+	private static boolean isClientDTO(Class<?> element) {
+		return element != null && ClientDTO.class.isAssignableFrom(element);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		OutputStream out = new BufferedOutputStream(outputMessage.getBody(), BUFFER_SIZE);
+		if (value instanceof ClientDTO) {
+			ClientBinaryCodec.write((ClientDTO) value, out);
+		} else if (value instanceof Slice) {
+			ClientBinaryCodec.write((Slice<ClientDTO>) value, out);
+		} else if (value instanceof Collection) {
+			ClientBinaryCodec.write((Collection<ClientDTO>) value, out);
+		} else {
+			throw new HttpMessageNotWritableException("Unsupported type " + value.getClass().getName());
+		}
+		out.flush();
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		throw new HttpMessageNotReadableException("Reading " + MEDIA_TYPE_VALUE + " is not supported", inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		throw new HttpMessageNotReadableException("Reading " + MEDIA_TYPE_VALUE + " is not supported", inputMessage);
+	}
+}
@@ -4,13 +4,20 @@ import java.time.Instant;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.iftm.client.services.exceptions.BadRequestException;
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.ServiceUnavailableException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 
 @ControllerAdvice
 public class ResourceExceptionHandler {
@@ -36,5 +43,49 @@ public class ResourceExceptionHandler {
 		err.setPath(request.getRequestURI());
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
 	}
+	
+	@ExceptionHandler(BadRequestException.class)
+	public ResponseEntity<StandardError> badRequest(BadRequestException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.BAD_REQUEST.value());
+		err.setError("Bad request");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
+	}
+	
+	@ExceptionHandler({ VersionConflictException.class, OptimisticLockingFailureException.class })
+	public ResponseEntity<StandardError> versionConflict(RuntimeException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.CONFLICT.value());
+		err.setError("Version conflict");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(err);
+	}
+	
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<StandardError> preconditionFailed(PreconditionFailedException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+		err.setError("Precondition failed");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(err);
+	}
+	
+	@ExceptionHandler({ ServiceUnavailableException.class, TaskRejectedException.class })
+	public ResponseEntity<StandardError> serviceUnavailable(RuntimeException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		err.setError("Service unavailable");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(err);
+	}
 
 }
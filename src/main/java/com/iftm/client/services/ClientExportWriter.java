@@ -0,0 +1,108 @@
+package com.iftm.client.services;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+
+public abstract class ClientExportWriter implements Closeable {
+
+	public static ClientExportWriter open(ExportFormat format, OutputStream out, ObjectMapper mapper) throws IOException {
+		switch (format) {
+		case JSON:
+			return new JsonExportWriter(out, mapper, true);
+		case NDJSON:
+			return new JsonExportWriter(out, mapper, false);
+		default:
+			return new CsvExportWriter(out);
+		}
+	}
+
+	public abstract void write(ClientDTO dto) throws IOException;
+
+	/*
+	 * O OutputStream pertence ao chamador (normalmente a resposta HTTP), por isso
+	 * close() apenas finaliza e descarrega o que foi escrito.
+	 */
+	private static class JsonExportWriter extends ClientExportWriter {
+
+		private final JsonGenerator generator;
+		private final ObjectWriter writer;
+		private final boolean array;
+
+		JsonExportWriter(OutputStream out, ObjectMapper mapper, boolean array) throws IOException {
+			this.array = array;
+			this.writer = mapper.writerFor(ClientDTO.class)
+					.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+					.withRootValueSeparator((String) null);
+			this.generator = mapper.getFactory().createGenerator(out);
+			this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			if (array) {
+				generator.writeStartArray();
+			}
+		}
+
+		@Override
+		public void write(ClientDTO dto) throws IOException {
+			writer.writeValue(generator, dto);
+			if (!array) {
+				generator.writeRaw('\n');
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (array) {
+				generator.writeEndArray();
+			}
+			generator.close();
+		}
+	}
+
+	private static class CsvExportWriter extends ClientExportWriter {
+
+		private final Writer writer;
+
+		CsvExportWriter(OutputStream out) throws IOException {
+			this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			writer.write("id,name,cpf,income,birthDate,children\n");
+		}
+
+		@Override
+		public void write(ClientDTO dto) throws IOException {
+			writer.write(String.valueOf(dto.getId()));
+			writer.write(',');
+			writer.write(quote(dto.getName()));
+			writer.write(',');
+			writer.write(quote(dto.getCpf()));
+			writer.write(',');
+			writer.write(dto.getIncome() == null ? "" : dto.getIncome().toString());
+			writer.write(',');
+			writer.write(dto.getBirthDate() == null ? "" : dto.getBirthDate().toString());
+			writer.write(',');
+			writer.write(dto.getChildren() == null ? "" : dto.getChildren().toString());
+			writer.write('\n');
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.flush();
+		}
+
+		private static String quote(String value) {
+			if (value == null) {
+				return "";
+			}
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+	}
+}
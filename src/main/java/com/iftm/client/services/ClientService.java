@@ -1,25 +1,69 @@
 package com.iftm.client.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.BulkResultDTO;
+import com.iftm.client.dto.CacheStatsDTO;
+import com.iftm.client.dto.ChunkResultDTO;
+import com.iftm.client.dto.ClientCursor;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeAdjustmentDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
+import com.iftm.client.dto.PageCursor;
+import com.iftm.client.dto.ValueCountDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.cache.ClientCache;
+import com.iftm.client.services.cache.ClientPageCache;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.services.exceptions.BadRequestException;
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.ServiceUnavailableException;
+import com.iftm.client.services.exceptions.VersionConflictException;
+import com.iftm.client.services.search.ClientNameIndex;
+import com.iftm.client.services.search.NameSearchResult;
 
 @Service
 public class ClientService {
@@ -27,63 +71,382 @@ public class ClientService {
 	@Autowired
 	private ClientRepository repository;
 	
+	@Autowired
+	private ClientCache cache;
+	
+	@Autowired
+	private ClientPageCache pageCache;
+	
+	@Autowired
+	private ApplicationEventPublisher publisher;
+	
+	@Autowired
+	private ClientNameIndex nameIndex;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${client.batch.chunk-size:500}")
+	private int chunkSize;
+	
+	@Value("${client.search.max-page-size:100}")
+	private int searchMaxPageSize;
+	
 	@Transactional(readOnly = true)
-	public List<ClientDTO> findAll() {
-		List<Client> list = repository.findAll();
-		return list.stream().map(x -> new ClientDTO(x)).collect(Collectors.toList());
+	public void export(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<ClientDTO> stream = repository.streamAll();
+				ClientExportWriter writer = ClientExportWriter.open(format, out, objectMapper)) {
+			Iterator<ClientDTO> it = stream.iterator();
+			while (it.hasNext()) {
+				writer.write(it.next());
+			}
+		}
+	}
+	
+	public String listETag() {
+		return pageCache.getETag();
+	}
+	
+	public long listLastModified() {
+		return pageCache.getLastModified();
 	}
 	
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findAllPaged(PageRequest pageRequest) {
-		Page<Client> list =  repository.findAll(pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		List<Object> key = Arrays.asList("findAllPaged", pageCache.getVersion(), pageRequest);
+		Page<ClientDTO> cached = pageCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		Page<ClientDTO> page = repository.findAllProjected(pageRequest);
+		pageCache.put(key, page);
+		return page;
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findAllSeek(String cursor, int linesPerPage, Direction direction, String orderBy) {
+		ClientCursor after = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+		if (after != null) {
+			direction = after.getDirection();
+			orderBy = after.getOrderBy();
+		} else if (!ClientCursor.SORTABLE_ATTRIBUTES.contains(orderBy)) {
+			throw new BadRequestException("Unsupported orderBy " + orderBy);
+		}
+		if (linesPerPage < 1) {
+			throw new BadRequestException("linesPerPage must be positive");
+		}
+		Slice<ClientDTO> slice = repository.findAllAfter(orderBy, direction,
+				after == null ? null : after.getValue(), after == null ? null : after.getId(), linesPerPage);
+		List<ClientDTO> content = slice.getContent();
+		String nextCursor = slice.hasNext()
+				? ClientCursor.after(content.get(content.size() - 1), orderBy, direction).encode()
+				: null;
+		return new CursorPageDTO<>(content, linesPerPage, slice.hasNext(), nextCursor);
 	}
 	
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findByIncome(Double income, PageRequest pageRequest) {
-		Page<Client> list =  repository.findByIncome(income, pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		List<Object> key = Arrays.asList("findByIncome", pageCache.getVersion(), income, pageRequest);
+		Page<ClientDTO> cached = pageCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		Page<ClientDTO> page = repository.findProjectedByIncome(income, pageRequest);
+		pageCache.put(key, page);
+		return page;
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByIncomeRange(Double minIncome, Double maxIncome, PageRequest pageRequest) {
+		double min = minIncome == null ? 0.0 : minIncome;
+		double max = maxIncome == null ? Double.MAX_VALUE : maxIncome;
+		if (min > max) {
+			throw new BadRequestException("minIncome must not be greater than maxIncome");
+		}
+		return repository.findProjectedByIncomeRange(min, max, pageRequest);
 	}
 	
 	@Transactional(readOnly = true)
+	public Slice<ClientDTO> findSliceByIncome(Double income, PageRequest pageRequest) {
+		List<Object> key = Arrays.asList("findSliceByIncome", pageCache.getVersion(), income, pageRequest);
+		Slice<ClientDTO> cached = pageCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		Slice<ClientDTO> slice = repository.findProjectedSliceByIncome(income, pageRequest);
+		pageCache.put(key, slice);
+		return slice;
+	}
+	
 	public ClientDTO findById(Long id) {
+		ClientDTO cached = cache.get(id);
+		if (cached != null) {
+			return cached;
+		}
+		long stamp = cache.stamp();
 		Optional<Client> obj = repository.findById(id);
 		Client entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-		return new ClientDTO(entity);
+		ClientDTO dto = new ClientDTO(entity);
+		cache.put(id, dto, stamp);
+		return dto;
+	}
+	
+	public CacheStatsDTO cacheStats() {
+		return cache.getStats();
 	}
 	
 	@Transactional(readOnly = true)
-	public List<Client> findByNameContainingIgnoreCase(String name) {
-		return repository.findByNameContainingIgnoreCase(name);
+	public Page<ClientDTO> findByName(String name, PageRequest pageRequest) {
+		pageRequest = capped(pageRequest);
+		// Sem o índice não há busca equivalente (sem acento e ranqueada) no banco: 503 até a carga terminar.
+		if (!nameIndex.isReady()) {
+			throw new ServiceUnavailableException("Name index is loading");
+		}
+		NameSearchResult result = nameIndex.search(name, (int) pageRequest.getOffset(), pageRequest.getPageSize());
+		Map<Long, ClientDTO> found = repository.findProjectedByIdIn(result.getIds()).stream()
+				.collect(Collectors.toMap(ClientDTO::getId, x -> x));
+		List<ClientDTO> content = result.getIds().stream()
+				.filter(found::containsKey)
+				.map(found::get)
+				.collect(Collectors.toList());
+		return new PageImpl<>(content, pageRequest, result.getTotal());
 	}
 	
 	@Transactional(readOnly = true)
-	public List<Client> findByBirthDateOrYear(Instant date) {
-		return repository.findByBirthDateOrYear(date);
+	public CursorPageDTO<ClientDTO> findByNameSeek(String name, String cursor, int linesPerPage) {
+		PageCursor current;
+		try {
+			current = cursor == null || cursor.isEmpty() ? new PageCursor(0, linesPerPage) : PageCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+		Page<ClientDTO> page = findByName(name, PageRequest.of(current.getPage(), current.getSize()));
+		String nextCursor = page.hasNext() ? new PageCursor(page.getNumber() + 1, page.getSize()).encode() : null;
+		return new CursorPageDTO<>(page.getContent(), page.getSize(), page.hasNext(), nextCursor);
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByBirthYear(Year year, PageRequest pageRequest) {
+		return findByBirthDateRange(year.atDay(1), year.plusYears(1).atDay(1), pageRequest);
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByBirthDateRange(LocalDate start, LocalDate end, PageRequest pageRequest) {
+		if (!start.isBefore(end)) {
+			throw new BadRequestException("start must be before end");
+		}
+		return repository.findProjectedByBirthDateRange(start.atStartOfDay(ZoneOffset.UTC).toInstant(),
+				end.atStartOfDay(ZoneOffset.UTC).toInstant(), capped(pageRequest));
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findByBirthDateRangeSeek(LocalDate start, LocalDate end, String cursor,
+			int linesPerPage, Direction direction) {
+		if (!start.isBefore(end)) {
+			throw new BadRequestException("start must be before end");
+		}
+		ClientCursor after = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+		if (after != null) {
+			if (!after.getOrderBy().equals("birthDate") || after.getValue() == null) {
+				throw new BadRequestException("Invalid cursor");
+			}
+			direction = after.getDirection();
+		}
+		int size = capped(linesPerPage);
+		Slice<ClientDTO> slice = repository.findBirthDateRangeAfter(start.atStartOfDay(ZoneOffset.UTC).toInstant(),
+				end.atStartOfDay(ZoneOffset.UTC).toInstant(), direction,
+				after == null ? null : (Instant) after.getValue(), after == null ? null : after.getId(), size);
+		List<ClientDTO> content = slice.getContent();
+		String nextCursor = slice.hasNext()
+				? ClientCursor.after(content.get(content.size() - 1), "birthDate", direction).encode()
+				: null;
+		return new CursorPageDTO<>(content, size, slice.hasNext(), nextCursor);
+	}
+	
+	@Transactional(readOnly = true)
+	public IncomeSummaryDTO incomeStats() {
+		return repository.summarizeIncome();
+	}
+	
+	@Transactional(readOnly = true)
+	public List<IncomeBucketDTO> incomeBandStats(Double width) {
+		if (width == null || !(width > 0)) {
+			throw new BadRequestException("width must be positive");
+		}
+		return repository.countByIncomeBand(width).stream()
+				.map(x -> {
+					double band = ((Number) x[0]).doubleValue();
+					return new IncomeBucketDTO(band * width, (band + 1) * width, ((Number) x[1]).longValue());
+				})
+				.collect(Collectors.toList());
+	}
+	
+	@Transactional(readOnly = true)
+	public List<ValueCountDTO> birthYearStats() {
+		return repository.countByBirthYear();
+	}
+	
+	@Transactional(readOnly = true)
+	public List<ValueCountDTO> childrenStats() {
+		return toValueCounts(repository.countByChildren());
 	}
 	
 	@Transactional
 	public ClientDTO insert(ClientDTO dto) {
 		Client entity = dto.toEntity();
 		entity = repository.save(entity);
-		return new ClientDTO(entity);
+		ClientDTO saved = new ClientDTO(entity);
+		publisher.publishEvent(ClientChangedEvent.saved(saved));
+		return saved;
+	}
+	
+	/*
+	 * Cada bloco é gravado na sua própria transação: um bloco com erro é
+	 * desfeito e reportado sem perder os blocos já gravados.
+	 */
+	public BatchInsertResultDTO insertAll(Iterator<ClientDTO> dtos) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		BatchInsertResultDTO result = new BatchInsertResultDTO();
+		int chunkIndex = 0;
+		while (dtos.hasNext()) {
+			List<ClientDTO> chunk = new ArrayList<>(chunkSize);
+			while (dtos.hasNext() && chunk.size() < chunkSize) {
+				chunk.add(dtos.next());
+			}
+			try {
+				List<Long> ids = transaction.execute(status -> {
+					List<Long> inserted = insertChunk(chunk);
+					publisher.publishEvent(ClientChangedEvent.saved(savedChunk(chunk, inserted)));
+					return inserted;
+				});
+				result.addChunk(new ChunkResultDTO(chunkIndex, chunk.size(), true, ids, null));
+			} catch (DataAccessException | PersistenceException e) {
+				String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+				result.addChunk(new ChunkResultDTO(chunkIndex, chunk.size(), false, null, message));
+			}
+			chunkIndex++;
+		}
+		return result;
 	}
 	
 	@Transactional
 	public ClientDTO update(Long id, ClientDTO dto) {
+		return update(id, dto, null);
+	}
+	
+	/*
+	 * ifMatch é a versão do cabeçalho If-Match (ou null). Divergência com ela é
+	 * 412; divergência só com a versão do corpo é 409, como no PATCH.
+	 */
+	@Transactional
+	public ClientDTO update(Long id, ClientDTO dto, Long ifMatch) {
 		try {
 			Client entity = repository.getOne(id);
+			if (isStale(entity.getVersion(), ifMatch) || isStale(entity.getVersion(), dto.getVersion())) {
+				throw versionMismatch(id, entity.getVersion(), ifMatch, dto.getVersion());
+			}
 			updateData(entity, dto);
 			entity = repository.save(entity);
-			return new ClientDTO(entity);
+			repository.flush();
+			ClientDTO saved = new ClientDTO(entity);
+			publisher.publishEvent(ClientChangedEvent.saved(saved));
+			return saved;
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
 		}
 	}
 	
+	/*
+	 * Atualização parcial: campos nulos em dto não são alterados. Um único
+	 * UPDATE por id (e versão, quando informada), sem carregar a entidade.
+	 */
+	@Transactional
+	public ClientDTO patch(Long id, ClientDTO dto) {
+		return patch(id, dto, null);
+	}
+	
+	// Mesmo contrato de versão do update: 412 para If-Match, 409 para a versão do corpo.
+	@Transactional
+	public ClientDTO patch(Long id, ClientDTO dto, Long ifMatch) {
+		if (dto.getName() == null && dto.getCpf() == null && dto.getIncome() == null
+				&& dto.getBirthDate() == null && dto.getChildren() == null) {
+			throw new BadRequestException("No fields to update");
+		}
+		Long expected = ifMatch != null ? ifMatch : dto.getVersion();
+		boolean conflicting = ifMatch != null && dto.getVersion() != null && !ifMatch.equals(dto.getVersion());
+		if (conflicting || repository.patch(id, expected, dto) == 0) {
+			long current = repository.findProjectedById(id)
+					.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id))
+					.getVersion();
+			throw versionMismatch(id, current, ifMatch, dto.getVersion());
+		}
+		ClientDTO saved = repository.findProjectedById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id));
+		publisher.publishEvent(ClientChangedEvent.saved(saved));
+		return saved;
+	}
+	
+	private static boolean isStale(long current, Long expected) {
+		return expected != null && expected != current;
+	}
+	
+	private static RuntimeException versionMismatch(Long id, long current, Long ifMatch, Long bodyVersion) {
+		if (isStale(current, ifMatch)) {
+			return new PreconditionFailedException("Client " + id + " is at version " + current
+					+ ", If-Match expected " + ifMatch);
+		}
+		return new VersionConflictException("Client " + id + " is at version " + current
+				+ ", expected " + bodyVersion);
+	}
+	
+	/*
+	 * Um DELETE ... WHERE id IN (...) por bloco de chunkSize ids, sem carregar
+	 * as entidades. Ids inexistentes são ignorados.
+	 */
+	@Transactional
+	public BulkResultDTO deleteAll(List<Long> ids) {
+		List<Long> distinct = ids.stream().filter(x -> x != null).distinct().collect(Collectors.toList());
+		long affected = 0;
+		try {
+			for (int i = 0; i < distinct.size(); i += chunkSize) {
+				affected += repository.deleteByIdIn(distinct.subList(i, Math.min(i + chunkSize, distinct.size())));
+			}
+		} catch (DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity violation");
+		}
+		if (affected > 0) {
+			publisher.publishEvent(ClientChangedEvent.deleted(distinct));
+		}
+		return new BulkResultDTO(affected);
+	}
+	
+	@Transactional
+	public BulkResultDTO adjustIncome(IncomeAdjustmentDTO dto) {
+		if (dto.getFactor() == null || dto.getFactor() <= 0) {
+			throw new BadRequestException("factor must be positive");
+		}
+		double min = dto.getMinIncome() == null ? 0.0 : dto.getMinIncome();
+		double max = dto.getMaxIncome() == null ? Double.MAX_VALUE : dto.getMaxIncome();
+		if (min > max) {
+			throw new BadRequestException("minIncome must not be greater than maxIncome");
+		}
+		int affected = repository.multiplyIncomeInRange(min, max, dto.getFactor());
+		if (affected > 0) {
+			publisher.publishEvent(ClientChangedEvent.incomeAdjusted(min, max, dto.getFactor()));
+		}
+		return new BulkResultDTO(affected);
+	}
+	
 	public void delete(Long id) {
 		try {
 			repository.deleteById(id);
+			publisher.publishEvent(ClientChangedEvent.deleted(id));
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
 		} catch (DataIntegrityViolationException e) {
@@ -91,6 +454,55 @@ public class ClientService {
 		}
 	}
 
+	private List<ValueCountDTO> toValueCounts(List<Object[]> rows) {
+		return rows.stream()
+				.map(x -> new ValueCountDTO(x[0] == null ? null : ((Number) x[0]).longValue(), ((Number) x[1]).longValue()))
+				.collect(Collectors.toList());
+	}
+
+	private PageRequest capped(PageRequest pageRequest) {
+		int size = capped(pageRequest.getPageSize());
+		return size == pageRequest.getPageSize() ? pageRequest
+				: PageRequest.of(pageRequest.getPageNumber(), size, pageRequest.getSort());
+	}
+	
+	private int capped(int linesPerPage) {
+		if (linesPerPage < 1) {
+			throw new BadRequestException("linesPerPage must be positive");
+		}
+		return Math.min(linesPerPage, searchMaxPageSize);
+	}
+	
+	private ClientCursor decodeCursor(String cursor) {
+		try {
+			return ClientCursor.decode(cursor);
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+
+	private List<Long> insertChunk(List<ClientDTO> chunk) {
+		List<Long> ids = new ArrayList<>(chunk.size());
+		for (ClientDTO dto : chunk) {
+			Client entity = dto.toEntity();
+			entity.setId(null);
+			entityManager.persist(entity);
+			ids.add(entity.getId());
+		}
+		entityManager.flush();
+		entityManager.clear();
+		return ids;
+	}
+
+	private List<ClientDTO> savedChunk(List<ClientDTO> chunk, List<Long> ids) {
+		List<ClientDTO> saved = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			ClientDTO dto = chunk.get(i);
+			saved.add(new ClientDTO(ids.get(i), dto.getName(), dto.getCpf(), dto.getIncome(), dto.getBirthDate(), dto.getChildren(), 0L));
+		}
+		return saved;
+	}
+
 	private void updateData(Client entity, ClientDTO dto) {
 		entity.setName(dto.getName());
 		entity.setCpf(dto.getCpf());
@@ -0,0 +1,17 @@
+package com.iftm.client.services;
+
+public enum ExportFormat {
+	JSON("application/json"),
+	NDJSON("application/x-ndjson"),
+	CSV("text/csv");
+
+	private final String mediaType;
+
+	private ExportFormat(String mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+}
@@ -0,0 +1,400 @@
+package com.iftm.client.services.analytics;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
+import com.iftm.client.dto.NameCountDTO;
+import com.iftm.client.dto.ValueCountDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.events.ClientChangedEvent;
+import com.iftm.client.services.exceptions.BadRequestException;
+
+/*
+ * Cópia colunar de tb_client em arrays primitivos (uma linha por cliente, na
+ * mesma posição em todas as colunas) para agregações sem ir ao banco. Nomes
+ * ficam codificados num dicionário. Carregada no ApplicationReadyEvent e
+ * atualizada pelos eventos de escrita depois do commit; remoções trocam a
+ * linha removida pela última.
+ */
+@Component
+public class ClientAnalytics {
+
+	private static final double NO_INCOME = Double.NaN;
+	private static final int NO_VALUE = Integer.MIN_VALUE;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Columns columns = new Columns(16);
+	private Map<Long, ClientDTO> changes;
+	private boolean adjustedWhileLoading;
+	private volatile boolean ready;
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/*
+	 * Como no ClientNameIndex, a carga lê o banco fora do lock e as escritas
+	 * que chegam nesse meio tempo ficam em "changes" (null = removido) para
+	 * serem reaplicadas na cópia nova. Um reajuste de renda não pode ser
+	 * reaplicado (parte das linhas lidas pode já vir reajustada), então a
+	 * carga é descartada e refeita.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		boolean loaded;
+		do {
+			loaded = load();
+		} while (!loaded);
+	}
+
+	private boolean load() {
+		Columns fresh = new Columns(1024);
+		lock.writeLock().lock();
+		try {
+			changes = new LinkedHashMap<>();
+			adjustedWhileLoading = false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		boolean loaded = false;
+		try {
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			transaction.setReadOnly(true);
+			transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+			transaction.executeWithoutResult(status -> {
+				try (Stream<ClientDTO> rows = repository.streamAll()) {
+					rows.forEach(fresh::put);
+				}
+			});
+			loaded = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				loaded = loaded && !adjustedWhileLoading;
+				if (loaded) {
+					changes.forEach((id, dto) -> {
+						if (dto == null) {
+							fresh.remove(id);
+						} else {
+							fresh.put(dto);
+						}
+					});
+					columns = fresh;
+					ready = true;
+				}
+				changes = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		return loaded;
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onChange(ClientChangedEvent event) {
+		switch (event.getType()) {
+		case SAVED:
+			event.getClients().forEach(this::put);
+			break;
+		case DELETED:
+			event.getIds().forEach(this::remove);
+			break;
+		case INCOME_ADJUSTED:
+			adjustIncome(event.getMinIncome(), event.getMaxIncome(), event.getFactor());
+			break;
+		}
+	}
+
+	public void put(ClientDTO dto) {
+		lock.writeLock().lock();
+		try {
+			columns.put(dto);
+			if (changes != null) {
+				changes.put(dto.getId(), dto);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			columns.remove(id);
+			if (changes != null) {
+				changes.put(id, null);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Mesma regra do UPDATE em massa (ClientRepository.multiplyIncomeInRange).
+	public void adjustIncome(double minIncome, double maxIncome, double factor) {
+		lock.writeLock().lock();
+		try {
+			columns.adjustIncome(minIncome, maxIncome, factor);
+			if (changes != null) {
+				adjustedWhileLoading = true;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Contagem, soma e percentis saem da mesma cópia, lida sob um único lock.
+	public IncomeSummaryDTO summary() {
+		lock.readLock().lock();
+		try {
+			Columns c = columns;
+			double[] sorted = c.sortedIncome();
+			long children = 0;
+			for (int i = 0; i < c.size; i++) {
+				if (c.children[i] != NO_VALUE) {
+					children += c.children[i];
+				}
+			}
+			if (sorted.length == 0) {
+				return new IncomeSummaryDTO(c.size, 0, null, null, null, null, null, null, null, children);
+			}
+			double sum = 0;
+			for (double value : sorted) {
+				sum += value;
+			}
+			return new IncomeSummaryDTO(c.size, sorted.length, sum, sum / sorted.length,
+					sorted[0], sorted[sorted.length - 1],
+					percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), children);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<IncomeBucketDTO> incomeHistogram(double width) {
+		if (!(width > 0)) {
+			throw new BadRequestException("width must be positive");
+		}
+		TreeMap<Long, Long> buckets = new TreeMap<>();
+		lock.readLock().lock();
+		try {
+			Columns c = columns;
+			for (int i = 0; i < c.size; i++) {
+				if (!Double.isNaN(c.income[i])) {
+					buckets.merge((long) Math.floor(c.income[i] / width), 1L, Long::sum);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<IncomeBucketDTO> result = new ArrayList<>(buckets.size());
+		buckets.forEach((bucket, count) -> result.add(new IncomeBucketDTO(bucket * width, (bucket + 1) * width, count)));
+		return result;
+	}
+
+	public List<ValueCountDTO> birthYears() {
+		lock.readLock().lock();
+		try {
+			return countValues(columns.birthYear, columns.size);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<ValueCountDTO> children() {
+		lock.readLock().lock();
+		try {
+			return countValues(columns.children, columns.size);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<NameCountDTO> topNames(int limit) {
+		if (limit < 1) {
+			throw new BadRequestException("limit must be positive");
+		}
+		lock.readLock().lock();
+		try {
+			Columns c = columns;
+			long[] counts = new long[c.dictionary.size()];
+			for (int i = 0; i < c.size; i++) {
+				if (c.nameCode[i] != NO_VALUE) {
+					counts[c.nameCode[i]]++;
+				}
+			}
+			List<NameCountDTO> result = new ArrayList<>();
+			for (int code = 0; code < counts.length; code++) {
+				if (counts[code] > 0) {
+					result.add(new NameCountDTO(c.dictionary.get(code), counts[code]));
+				}
+			}
+			result.sort(Comparator.comparingLong(NameCountDTO::getCount).reversed().thenComparing(NameCountDTO::getName));
+			return result.size() > limit ? result.subList(0, limit) : result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static Double percentile(double[] sorted, double p) {
+		int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	private static List<ValueCountDTO> countValues(int[] column, int size) {
+		TreeMap<Integer, Long> counts = new TreeMap<>();
+		long missing = 0;
+		for (int i = 0; i < size; i++) {
+			if (column[i] == NO_VALUE) {
+				missing++;
+			} else {
+				counts.merge(column[i], 1L, Long::sum);
+			}
+		}
+		List<ValueCountDTO> result = new ArrayList<>(counts.size() + 1);
+		counts.forEach((value, count) -> result.add(new ValueCountDTO(value.longValue(), count)));
+		if (missing > 0) {
+			result.add(new ValueCountDTO(null, missing));
+		}
+		return result;
+	}
+
+	/*
+	 * O dicionário de nomes só cresce: nomes que deixam de ser usados (remoção
+	 * ou renomeação) continuam nele até o próximo rebuild, que parte de um
+	 * Columns novo e recodifica apenas os nomes existentes.
+	 */
+	private static class Columns {
+		private long[] id;
+		private double[] income;
+		private int[] birthYear;
+		private int[] children;
+		private int[] nameCode;
+		private int size;
+		private volatile double[] sortedIncome;
+		private final Map<Long, Integer> rowById = new HashMap<>();
+		private final List<String> dictionary = new ArrayList<>();
+		private final Map<String, Integer> codes = new HashMap<>();
+
+		Columns(int capacity) {
+			id = new long[capacity];
+			income = new double[capacity];
+			birthYear = new int[capacity];
+			children = new int[capacity];
+			nameCode = new int[capacity];
+		}
+
+		void put(ClientDTO dto) {
+			Integer row = rowById.get(dto.getId());
+			if (row == null) {
+				if (size == id.length) {
+					grow();
+				}
+				row = size++;
+				rowById.put(dto.getId(), row);
+			}
+			Instant birth = dto.getBirthDate();
+			id[row] = dto.getId();
+			income[row] = dto.getIncome() == null ? NO_INCOME : dto.getIncome();
+			birthYear[row] = birth == null ? NO_VALUE : birth.atZone(ZoneOffset.UTC).getYear();
+			children[row] = dto.getChildren() == null ? NO_VALUE : dto.getChildren();
+			nameCode[row] = dto.getName() == null ? NO_VALUE : encode(dto.getName());
+			sortedIncome = null;
+		}
+
+		void remove(Long clientId) {
+			Integer row = rowById.remove(clientId);
+			if (row == null) {
+				return;
+			}
+			int last = --size;
+			if (row != last) {
+				id[row] = id[last];
+				income[row] = income[last];
+				birthYear[row] = birthYear[last];
+				children[row] = children[last];
+				nameCode[row] = nameCode[last];
+				rowById.put(id[row], row);
+			}
+			sortedIncome = null;
+		}
+
+		void adjustIncome(double minIncome, double maxIncome, double factor) {
+			for (int i = 0; i < size; i++) {
+				if (income[i] >= minIncome && income[i] <= maxIncome) {
+					income[i] = income[i] * factor;
+				}
+			}
+			sortedIncome = null;
+		}
+
+		/*
+		 * Cópia ordenada das rendas, refeita só na primeira consulta depois de
+		 * uma escrita. Chamado sob o read lock: leitores simultâneos podem
+		 * calcular a mesma cópia duas vezes, mas nunca uma cópia diferente.
+		 */
+		double[] sortedIncome() {
+			double[] sorted = sortedIncome;
+			if (sorted == null) {
+				sorted = new double[size];
+				int n = 0;
+				for (int i = 0; i < size; i++) {
+					if (!Double.isNaN(income[i])) {
+						sorted[n++] = income[i];
+					}
+				}
+				sorted = Arrays.copyOf(sorted, n);
+				Arrays.sort(sorted);
+				sortedIncome = sorted;
+			}
+			return sorted;
+		}
+
+		private int encode(String name) {
+			Integer code = codes.get(name);
+			if (code == null) {
+				code = dictionary.size();
+				dictionary.add(name);
+				codes.put(name, code);
+			}
+			return code;
+		}
+
+		private void grow() {
+			int capacity = id.length * 2;
+			id = Arrays.copyOf(id, capacity);
+			income = Arrays.copyOf(income, capacity);
+			birthYear = Arrays.copyOf(birthYear, capacity);
+			children = Arrays.copyOf(children, capacity);
+			nameCode = Arrays.copyOf(nameCode, capacity);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.iftm.client.services.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.dto.CacheStatsDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Component
+public class ClientCache implements MeterBinder {
+
+	private final LruTtlCache<Long, ClientDTO> cache;
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public ClientCache(
+			@Value("${client.cache.max-size:10000}") int maxSize,
+			@Value("${client.cache.ttl:5m}") Duration ttl) {
+		this.cache = new LruTtlCache<>(maxSize, ttl);
+	}
+
+	public ClientDTO get(Long id) {
+		ClientDTO dto = cache.get(id);
+		return dto == null ? null : copy(dto);
+	}
+
+	/*
+	 * O valor lido do banco só entra no cache se nenhuma escrita aconteceu
+	 * depois de stamp(); assim uma leitura concorrente com um update não
+	 * recoloca no cache o valor antigo.
+	 */
+	public long stamp() {
+		return invalidations.get();
+	}
+
+	public void put(Long id, ClientDTO dto, long stamp) {
+		synchronized (invalidations) {
+			if (invalidations.get() == stamp) {
+				cache.put(id, copy(dto));
+			}
+		}
+	}
+
+	public CacheStatsDTO getStats() {
+		return new CacheStatsDTO(cache.size(), cache.getHits(), cache.getMisses(), cache.getEvictions());
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("client.cache.requests", cache, LruTtlCache::getHits).tag("result", "hit").register(registry);
+		FunctionCounter.builder("client.cache.requests", cache, LruTtlCache::getMisses).tag("result", "miss").register(registry);
+		FunctionCounter.builder("client.cache.evictions", cache, LruTtlCache::getEvictions).register(registry);
+		Gauge.builder("client.cache.size", cache, LruTtlCache::size).register(registry);
+	}
+
+	@EventListener
+	public void onChange(ClientChangedEvent event) {
+		evict(event);
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void afterCompletion(ClientChangedEvent event) {
+		evict(event);
+	}
+
+	private void evict(ClientChangedEvent event) {
+		synchronized (invalidations) {
+			invalidations.incrementAndGet();
+			if (event.isBulk()) {
+				cache.clear();
+			} else {
+				event.getIds().forEach(cache::remove);
+			}
+		}
+	}
+
+	private static ClientDTO copy(ClientDTO dto) {
+		return new ClientDTO(dto.getId(), dto.getName(), dto.getCpf(), dto.getIncome(), dto.getBirthDate(), dto.getChildren(),
+				dto.getVersion());
+	}
+}
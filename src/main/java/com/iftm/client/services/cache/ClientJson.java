@@ -0,0 +1,24 @@
+package com.iftm.client.services.cache;
+
+/*
+ * ClientDTO já serializado em JSON (UTF-8), com a versão usada no ETag. O
+ * array é compartilhado entre as respostas e nunca deve ser alterado.
+ */
+public class ClientJson {
+
+	private final byte[] body;
+	private final Long version;
+
+	public ClientJson(byte[] body, Long version) {
+		this.body = body;
+		this.version = version;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+}
@@ -0,0 +1,79 @@
+package com.iftm.client.services.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.services.events.ClientChangedEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Respostas de GET /clients/{id} já serializadas, por id. Segue as mesmas
+ * regras do ClientCache: as escritas removem o id (ou tudo, nas escritas em massa)
+ * e uma leitura que começou antes de uma escrita não entra no cache.
+ */
+@Component
+public class ClientJsonCache implements MeterBinder {
+
+	private final LruTtlCache<Long, ClientJson> cache;
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public ClientJsonCache(
+			@Value("${client.json-cache.max-size:10000}") int maxSize,
+			@Value("${client.json-cache.ttl:5m}") Duration ttl) {
+		this.cache = new LruTtlCache<>(maxSize, ttl);
+	}
+
+	public ClientJson get(Long id) {
+		return cache.get(id);
+	}
+
+	public long stamp() {
+		return invalidations.get();
+	}
+
+	public void put(Long id, ClientJson json, long stamp) {
+		synchronized (invalidations) {
+			if (invalidations.get() == stamp) {
+				cache.put(id, json);
+			}
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("client.json-cache.requests", cache, LruTtlCache::getHits).tag("result", "hit").register(registry);
+		FunctionCounter.builder("client.json-cache.requests", cache, LruTtlCache::getMisses).tag("result", "miss").register(registry);
+		Gauge.builder("client.json-cache.size", cache, LruTtlCache::size).register(registry);
+	}
+
+	@EventListener
+	public void onChange(ClientChangedEvent event) {
+		evict(event);
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void afterCompletion(ClientChangedEvent event) {
+		evict(event);
+	}
+
+	private void evict(ClientChangedEvent event) {
+		synchronized (invalidations) {
+			invalidations.incrementAndGet();
+			if (event.isBulk()) {
+				cache.clear();
+			} else {
+				event.getIds().forEach(cache::remove);
+			}
+		}
+	}
+}
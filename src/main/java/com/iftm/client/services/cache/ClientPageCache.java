@@ -0,0 +1,86 @@
+package com.iftm.client.services.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Versão de toda a tabela de clientes, incrementada a cada escrita (logo que
+ * o evento é publicado e de novo ao fim da transação), e cache curto das
+ * páginas de listagem. A chave de cada página inclui a versão em que foi lida,
+ * então uma página lida antes de uma escrita nunca é servida depois dela.
+ */
+@Component
+public class ClientPageCache implements MeterBinder {
+
+	private final LruTtlCache<List<Object>, Slice<ClientDTO>> cache;
+	private final long epoch = System.currentTimeMillis();
+	private final AtomicLong version = new AtomicLong();
+	private volatile long lastModified = epoch;
+
+	public ClientPageCache(
+			@Value("${client.page-cache.max-size:1000}") int maxSize,
+			@Value("${client.page-cache.ttl:5s}") Duration ttl) {
+		this.cache = new LruTtlCache<>(maxSize, ttl);
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	// O epoch evita repetir ETags depois de um restart, quando a versão volta a zero.
+	public String getETag() {
+		return "W/\"" + epoch + "-" + version.get() + "\"";
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T extends Slice<ClientDTO>> T get(List<Object> key) {
+		return (T) cache.get(key);
+	}
+
+	public void put(List<Object> key, Slice<ClientDTO> page) {
+		cache.put(key, page);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("client.page-cache.requests", cache, LruTtlCache::getHits).tag("result", "hit").register(registry);
+		FunctionCounter.builder("client.page-cache.requests", cache, LruTtlCache::getMisses).tag("result", "miss").register(registry);
+		Gauge.builder("client.page-cache.size", cache, LruTtlCache::size).register(registry);
+	}
+
+	@EventListener
+	public void onChange(ClientChangedEvent event) {
+		bump();
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void afterCompletion(ClientChangedEvent event) {
+		bump();
+	}
+
+	private void bump() {
+		version.incrementAndGet();
+		lastModified = System.currentTimeMillis();
+		cache.clear();
+	}
+}
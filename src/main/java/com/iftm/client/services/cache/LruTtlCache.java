@@ -0,0 +1,89 @@
+package com.iftm.client.services.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class LruTtlCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public LruTtlCache(int maxSize, Duration ttl) {
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl.toNanos();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > LruTtlCache.this.maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		if (System.nanoTime() - entry.createdAt > ttlNanos) {
+			entries.remove(key);
+			evictions++;
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		if (maxSize > 0) {
+			entries.put(key, new Entry<>(value, System.nanoTime()));
+		}
+	}
+
+	public synchronized void remove(K key) {
+		entries.remove(key);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long createdAt;
+
+		Entry(V value, long createdAt) {
+			this.value = value;
+			this.createdAt = createdAt;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.iftm.client.services.events;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.iftm.client.dto.ClientDTO;
+
+public class ClientChangedEvent {
+
+	public enum Type {
+		SAVED, DELETED, INCOME_ADJUSTED
+	}
+
+	private final Type type;
+	private final List<ClientDTO> clients;
+	private final List<Long> ids;
+	private final Double minIncome;
+	private final Double maxIncome;
+	private final Double factor;
+
+	private ClientChangedEvent(Type type, List<ClientDTO> clients, List<Long> ids) {
+		this(type, clients, ids, null, null, null);
+	}
+
+	private ClientChangedEvent(Type type, List<ClientDTO> clients, List<Long> ids, Double minIncome, Double maxIncome,
+			Double factor) {
+		this.type = type;
+		this.clients = clients;
+		this.ids = ids;
+		this.minIncome = minIncome;
+		this.maxIncome = maxIncome;
+		this.factor = factor;
+	}
+
+	public static ClientChangedEvent saved(List<ClientDTO> clients) {
+		List<Long> ids = clients.stream().map(ClientDTO::getId).collect(Collectors.toList());
+		return new ClientChangedEvent(Type.SAVED, clients, ids);
+	}
+
+	public static ClientChangedEvent saved(ClientDTO client) {
+		return saved(Collections.singletonList(client));
+	}
+
+	public static ClientChangedEvent deleted(List<Long> ids) {
+		return new ClientChangedEvent(Type.DELETED, Collections.emptyList(), ids);
+	}
+
+	public static ClientChangedEvent deleted(Long id) {
+		return deleted(Collections.singletonList(id));
+	}
+
+	/*
+	 * Reajuste em massa: a renda de quem estava em [minIncome, maxIncome] foi
+	 * multiplicada por factor. Os ids não são conhecidos, mas só a renda mudou;
+	 * quem guarda só nomes pode ignorar e quem guarda rendas pode refazer a conta.
+	 */
+	public static ClientChangedEvent incomeAdjusted(Double minIncome, Double maxIncome, Double factor) {
+		return new ClientChangedEvent(Type.INCOME_ADJUSTED, Collections.emptyList(), Collections.emptyList(),
+				minIncome, maxIncome, factor);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public List<ClientDTO> getClients() {
+		return clients;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	// Verdadeiro quando getIds() não lista os clientes afetados.
+	public boolean isBulk() {
+		return type == Type.INCOME_ADJUSTED;
+	}
+
+	public Double getMinIncome() {
+		return minIncome;
+	}
+
+	public Double getMaxIncome() {
+		return maxIncome;
+	}
+
+	public Double getFactor() {
+		return factor;
+	}
+}
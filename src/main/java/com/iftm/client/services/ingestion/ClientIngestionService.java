@@ -0,0 +1,214 @@
+package com.iftm.client.services.ingestion;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.ChunkResultDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IngestionStatusDTO;
+import com.iftm.client.dto.IngestionStatusDTO.Status;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.cache.LruTtlCache;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Inserção em segundo plano (write-behind): os clientes entram numa fila
+ * limitada e uma única thread junta o que chegou, até batchSize itens ou
+ * linger de espera, e grava tudo com ClientService.insertAll. Fila cheia
+ * é recusada na hora (503) em vez de acumular memória.
+ */
+@Service
+public class ClientIngestionService implements MeterBinder {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientIngestionService.class);
+
+	private final ClientService service;
+	private final boolean enabled;
+	private final int batchSize;
+	private final long lingerNanos;
+	private final BlockingQueue<Ticket> queue;
+	private final Map<String, IngestionStatusDTO> pending = new ConcurrentHashMap<>();
+	private final LruTtlCache<String, IngestionStatusDTO> completed;
+
+	private volatile boolean running;
+	private Thread worker;
+
+	public ClientIngestionService(ClientService service,
+			@Value("${client.ingestion.enabled:false}") boolean enabled,
+			@Value("${client.ingestion.queue-capacity:10000}") int queueCapacity,
+			@Value("${client.ingestion.batch-size:500}") int batchSize,
+			@Value("${client.ingestion.linger:20ms}") Duration linger,
+			@Value("${client.ingestion.status-ttl:10m}") Duration statusTtl) {
+		this.service = service;
+		this.enabled = enabled;
+		this.batchSize = batchSize;
+		this.lingerNanos = linger.toNanos();
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.completed = new LruTtlCache<>(queueCapacity * 10, statusTtl);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public IngestionStatusDTO enqueue(ClientDTO dto) {
+		Ticket ticket = new Ticket(UUID.randomUUID().toString(), dto);
+		IngestionStatusDTO status = new IngestionStatusDTO(ticket.id, Status.QUEUED, null, null);
+		pending.put(ticket.id, status);
+		if (!queue.offer(ticket)) {
+			pending.remove(ticket.id);
+			throw new ServiceUnavailableException("Ingestion queue is full");
+		}
+		return status;
+	}
+
+	public IngestionStatusDTO getStatus(String trackingId) {
+		IngestionStatusDTO status = pending.get(trackingId);
+		if (status == null) {
+			status = completed.get(trackingId);
+		}
+		if (status == null) {
+			throw new ResourceNotFoundException("Tracking id not found " + trackingId);
+		}
+		return status;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("client.ingestion.queue.size", queue, BlockingQueue::size).register(registry);
+	}
+
+	@PostConstruct
+	public void start() {
+		running = true;
+		worker = new Thread(this::run, "client-ingestion");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	// Ao desligar, grava o que ainda estava na fila antes de sair.
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		if (worker != null) {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		}
+	}
+
+	private void run() {
+		List<Ticket> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				fill(batch);
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOG.error("Client ingestion batch failed", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void fill(List<Ticket> batch) throws InterruptedException {
+		long deadline = System.nanoTime() + lingerNanos;
+		while (batch.size() < batchSize) {
+			queue.drainTo(batch, batchSize - batch.size());
+			long remaining = deadline - System.nanoTime();
+			if (batch.size() >= batchSize || remaining <= 0) {
+				return;
+			}
+			Ticket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (next == null) {
+				return;
+			}
+			batch.add(next);
+		}
+	}
+
+	private void write(List<Ticket> batch) {
+		BatchInsertResultDTO result;
+		try {
+			result = service.insertAll(batch.stream().map(x -> x.client).iterator());
+		} catch (RuntimeException e) {
+			batch.forEach(x -> complete(x, Status.FAILED, null, e.getMessage()));
+			throw e;
+		}
+		int offset = 0;
+		for (ChunkResultDTO chunk : result.getChunks()) {
+			List<Ticket> tickets = batch.subList(offset, offset + chunk.getSize());
+			if (chunk.getSuccess()) {
+				for (int i = 0; i < tickets.size(); i++) {
+					complete(tickets.get(i), Status.DONE, chunk.getIds().get(i), null);
+				}
+			} else if (tickets.size() == 1) {
+				complete(tickets.get(0), Status.FAILED, null, chunk.getMessage());
+			} else {
+				writeOneByOne(tickets);
+			}
+			offset += chunk.getSize();
+		}
+	}
+
+	// Um bloco falha inteiro por causa de um cliente; gravando um a um, só o ticket dele falha.
+	private void writeOneByOne(List<Ticket> tickets) {
+		for (Ticket ticket : tickets) {
+			ChunkResultDTO chunk;
+			try {
+				chunk = service.insertAll(Collections.singletonList(ticket.client).iterator()).getChunks().get(0);
+			} catch (RuntimeException e) {
+				complete(ticket, Status.FAILED, null, e.getMessage());
+				continue;
+			}
+			if (chunk.getSuccess()) {
+				complete(ticket, Status.DONE, chunk.getIds().get(0), null);
+			} else {
+				complete(ticket, Status.FAILED, null, chunk.getMessage());
+			}
+		}
+	}
+
+	private void complete(Ticket ticket, Status status, Long clientId, String message) {
+		completed.put(ticket.id, new IngestionStatusDTO(ticket.id, status, clientId, message));
+		pending.remove(ticket.id);
+	}
+
+	private static class Ticket {
+		private final String id;
+		private final ClientDTO client;
+
+		Ticket(String id, ClientDTO client) {
+			this.id = id;
+			this.client = client;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.iftm.client.services.parallel;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Serialização em JSON em blocos de chunkSize itens num ForkJoinPool próprio,
+ * usada só a partir de threshold itens: abaixo disso o custo de dividir e
+ * juntar é maior que o ganho (ver ClientJsonSerializationBenchmark). O tempo
+ * de cada lista serializada aqui vai para o timer client.dto.mapping.
+ */
+@Component
+public class ParallelPipeline implements MeterBinder {
+
+	// Tamanho médio de um ClientDTO em JSON, para pré-dimensionar os buffers.
+	private static final int ESTIMATED_CHARS_PER_ITEM = 160;
+
+	private final int threshold;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+	private final JsonFactory factory;
+	private final ObjectWriter writer;
+	private volatile Timer mapping;
+
+	public ParallelPipeline(
+			@Value("${client.parallel.threshold:2000}") int threshold,
+			@Value("${client.parallel.chunk-size:500}") int chunkSize,
+			@Value("${client.parallel.threads:0}") int threads,
+			ObjectMapper mapper) {
+		this.threshold = threshold;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("client-parallel-" + thread.getPoolIndex());
+			return thread;
+		}, null, false);
+		this.factory = mapper.getFactory();
+		this.writer = mapper.writer()
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.withRootValueSeparator(",");
+	}
+
+	@PreDestroy
+	public void stop() {
+		pool.shutdown();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		mapping = Timer.builder("client.dto.mapping")
+				.description("ClientDTO list to JSON time per response (parallel serialization)")
+				.publishPercentiles(0.5, 0.99)
+				.register(registry);
+	}
+
+	private boolean isParallel(int size) {
+		return size >= threshold && size > chunkSize && pool.getParallelism() > 1;
+	}
+
+	// Troca o conteúdo grande por uma lista que o Jackson serializa em paralelo.
+	public <T> List<T> forJson(List<T> content) {
+		return isParallel(content.size()) ? new ParallelJsonList<>(content, this) : content;
+	}
+
+	public <T> Page<T> forJson(Page<T> page) {
+		List<T> content = forJson(page.getContent());
+		return content == page.getContent() ? page : new PageImpl<>(content, page.getPageable(), page.getTotalElements());
+	}
+
+	public <T> Slice<T> forJson(Slice<T> slice) {
+		if (slice instanceof Page) {
+			return forJson((Page<T>) slice);
+		}
+		List<T> content = forJson(slice.getContent());
+		return content == slice.getContent() ? slice : new SliceImpl<>(content, slice.getPageable(), slice.hasNext());
+	}
+
+	/*
+	 * Cada bloco vira um trecho "a,b,c" serializado num worker; o gerador da
+	 * resposta só concatena os trechos na ordem, à medida que ficam prontos.
+	 */
+	void writeArray(List<?> items, JsonGenerator generator) throws IOException {
+		long start = System.nanoTime();
+		try {
+			writeChunks(items, generator);
+		} finally {
+			Timer timer = mapping;
+			if (timer != null) {
+				timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	private void writeChunks(List<?> items, JsonGenerator generator) throws IOException {
+		List<ForkJoinTask<String>> chunks = new ArrayList<>(items.size() / chunkSize + 1);
+		for (int from = 0; from < items.size(); from += chunkSize) {
+			List<?> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+			chunks.add(pool.submit(() -> writeChunk(chunk)));
+		}
+		generator.writeStartArray();
+		try {
+			for (int i = 0; i < chunks.size(); i++) {
+				if (i > 0) {
+					generator.writeRaw(',');
+				}
+				generator.writeRaw(chunks.get(i).join());
+			}
+		} catch (UncheckedIOException e) {
+			chunks.forEach(x -> x.cancel(false));
+			throw e.getCause();
+		}
+		generator.writeEndArray();
+	}
+
+	private String writeChunk(List<?> chunk) {
+		StringWriter out = new StringWriter(chunk.size() * ESTIMATED_CHARS_PER_ITEM);
+		try (JsonGenerator generator = factory.createGenerator(out)) {
+			for (Object item : chunk) {
+				writer.writeValue(generator, item);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toString();
+	}
+
+	@JsonSerialize(using = ParallelJsonSerializer.class)
+	static class ParallelJsonList<T> extends AbstractList<T> implements RandomAccess {
+
+		private final List<T> items;
+		private final ParallelPipeline pipeline;
+
+		ParallelJsonList(List<T> items, ParallelPipeline pipeline) {
+			this.items = items;
+			this.pipeline = pipeline;
+		}
+
+		@Override
+		public T get(int index) {
+			return items.get(index);
+		}
+
+		@Override
+		public int size() {
+			return items.size();
+		}
+	}
+
+	public static class ParallelJsonSerializer extends JsonSerializer<ParallelJsonList<?>> {
+
+		@Override
+		public void serialize(ParallelJsonList<?> value, JsonGenerator generator, SerializerProvider serializers)
+				throws IOException {
+			value.pipeline.writeArray(value.items, generator);
+		}
+	}
+}
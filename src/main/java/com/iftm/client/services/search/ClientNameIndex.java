@@ -0,0 +1,281 @@
+package com.iftm.client.services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+/*
+ * Índice em memória de trigramas sobre Client.name (normalizado: minúsculo e
+ * sem acentos). Buscas com 3 ou mais caracteres intersectam as listas de ids
+ * dos trigramas da consulta; buscas menores percorrem os nomes em memória.
+ */
+@Component
+public class ClientNameIndex {
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	private static final Comparator<Match> RANKING = Comparator.comparingInt((Match m) -> m.rank)
+			.thenComparing(m -> m.name)
+			.thenComparingLong(m -> m.id);
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Map<Long, String> names = new HashMap<>();
+	private Map<Long, PostingList> trigrams = new HashMap<>();
+	private Map<Long, String> changes;
+	private volatile boolean ready;
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/*
+	 * A carga lê o banco fora do lock. As alterações que chegam enquanto ela
+	 * roda vão para os mapas atuais e também para "changes" (null = removido),
+	 * e são reaplicadas nos mapas novos antes da troca; assim nenhuma se perde.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		Map<Long, String> newNames = new HashMap<>();
+		Map<Long, PostingList> newTrigrams = new HashMap<>();
+		lock.writeLock().lock();
+		try {
+			changes = new LinkedHashMap<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		boolean loaded = false;
+		try {
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			transaction.setReadOnly(true);
+			transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+			transaction.executeWithoutResult(status -> {
+				try (Stream<Object[]> rows = repository.streamNames()) {
+					rows.forEach(row -> index(newNames, newTrigrams, (Long) row[0], (String) row[1]));
+				}
+			});
+			loaded = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				if (loaded) {
+					changes.forEach((id, name) -> {
+						unindex(newNames, newTrigrams, id);
+						index(newNames, newTrigrams, id, name);
+					});
+					names = newNames;
+					trigrams = newTrigrams;
+					ready = true;
+				}
+				changes = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onChange(ClientChangedEvent event) {
+		switch (event.getType()) {
+		case SAVED:
+			event.getClients().forEach(x -> put(x.getId(), x.getName()));
+			break;
+		case DELETED:
+			event.getIds().forEach(this::remove);
+			break;
+		case INCOME_ADJUSTED:
+			// Só a renda mudou; os nomes indexados continuam valendo.
+			break;
+		}
+	}
+
+	public void put(Long id, String name) {
+		lock.writeLock().lock();
+		try {
+			unindex(names, trigrams, id);
+			index(names, trigrams, id, name);
+			if (changes != null) {
+				changes.put(id, name);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			unindex(names, trigrams, id);
+			if (changes != null) {
+				changes.put(id, null);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public NameSearchResult search(String query, int offset, int limit) {
+		String normalized = normalize(query);
+		List<Match> matches;
+		lock.readLock().lock();
+		try {
+			matches = normalized.length() < 3 ? scan(normalized) : lookup(normalized);
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<Match> top = top(matches, (int) Math.min((long) offset + limit, matches.size()));
+		List<Long> ids = offset >= top.size()
+				? Collections.emptyList()
+				: top.subList(offset, top.size()).stream().map(x -> x.id).collect(Collectors.toList());
+		return new NameSearchResult(matches.size(), ids);
+	}
+
+	public static String normalize(String value) {
+		String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	private List<Match> scan(String query) {
+		List<Match> matches = new ArrayList<>();
+		for (Map.Entry<Long, String> entry : names.entrySet()) {
+			if (entry.getValue().contains(query)) {
+				matches.add(new Match(entry.getKey(), entry.getValue(), rank(entry.getValue(), query)));
+			}
+		}
+		return matches;
+	}
+
+	private List<Match> lookup(String query) {
+		List<PostingList> lists = new ArrayList<>();
+		for (long trigram : trigramsOf(query)) {
+			PostingList list = trigrams.get(trigram);
+			if (list == null) {
+				return new ArrayList<>();
+			}
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(PostingList::size));
+		PostingList smallest = lists.get(0);
+		List<Match> matches = new ArrayList<>();
+		candidates: for (int i = 0; i < smallest.size(); i++) {
+			long id = smallest.get(i);
+			for (int j = 1; j < lists.size(); j++) {
+				if (!lists.get(j).contains(id)) {
+					continue candidates;
+				}
+			}
+			String name = names.get(id);
+			if (name.contains(query)) {
+				matches.add(new Match(id, name, rank(name, query)));
+			}
+		}
+		return matches;
+	}
+
+	private static List<Match> top(List<Match> matches, int k) {
+		if (k >= matches.size()) {
+			matches.sort(RANKING);
+			return matches;
+		}
+		PriorityQueue<Match> heap = new PriorityQueue<>(k + 1, RANKING.reversed());
+		for (Match match : matches) {
+			heap.add(match);
+			if (heap.size() > k) {
+				heap.poll();
+			}
+		}
+		List<Match> top = new ArrayList<>(heap);
+		top.sort(RANKING);
+		return top;
+	}
+
+	private static int rank(String name, String query) {
+		if (name.equals(query)) {
+			return 0;
+		}
+		if (name.startsWith(query)) {
+			return 1;
+		}
+		if (name.contains(" " + query)) {
+			return 2;
+		}
+		return 3;
+	}
+
+	private static void index(Map<Long, String> names, Map<Long, PostingList> trigrams, Long id, String name) {
+		if (name == null) {
+			return;
+		}
+		String normalized = normalize(name);
+		names.put(id, normalized);
+		for (long trigram : trigramsOf(normalized)) {
+			trigrams.computeIfAbsent(trigram, x -> new PostingList()).add(id);
+		}
+	}
+
+	private static void unindex(Map<Long, String> names, Map<Long, PostingList> trigrams, Long id) {
+		String old = names.remove(id);
+		if (old == null) {
+			return;
+		}
+		for (long trigram : trigramsOf(old)) {
+			PostingList list = trigrams.get(trigram);
+			if (list != null) {
+				list.remove(id);
+				if (list.size() == 0) {
+					trigrams.remove(trigram);
+				}
+			}
+		}
+	}
+
+	private static long[] trigramsOf(String value) {
+		return IntStream.rangeClosed(0, value.length() - 3)
+				.mapToLong(i -> ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2))
+				.distinct()
+				.toArray();
+	}
+
+	private static class Match {
+		private final long id;
+		private final String name;
+		private final int rank;
+
+		Match(long id, String name, int rank) {
+			this.id = id;
+			this.name = name;
+			this.rank = rank;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.iftm.client.services.search;
+
+import java.util.List;
+
+public class NameSearchResult {
+
+	private final long total;
+	private final List<Long> ids;
+
+	public NameSearchResult(long total, List<Long> ids) {
+		this.total = total;
+		this.ids = ids;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+}
@@ -0,0 +1,52 @@
+package com.iftm.client.services.search;
+
+import java.util.Arrays;
+
+class PostingList {
+
+	private long[] ids = new long[4];
+	private int size;
+
+	void add(long id) {
+		if (size > 0 && ids[size - 1] < id) {
+			ensureCapacity();
+			ids[size++] = id;
+			return;
+		}
+		int pos = Arrays.binarySearch(ids, 0, size, id);
+		if (pos >= 0) {
+			return;
+		}
+		int insertAt = -pos - 1;
+		ensureCapacity();
+		System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+		ids[insertAt] = id;
+		size++;
+	}
+
+	void remove(long id) {
+		int pos = Arrays.binarySearch(ids, 0, size, id);
+		if (pos >= 0) {
+			System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+			size--;
+		}
+	}
+
+	boolean contains(long id) {
+		return Arrays.binarySearch(ids, 0, size, id) >= 0;
+	}
+
+	long get(int index) {
+		return ids[index];
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void ensureCapacity() {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+	}
+}
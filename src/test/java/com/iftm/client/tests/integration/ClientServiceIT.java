@@ -1,6 +1,13 @@
 package com.iftm.client.tests.integration;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,13 +16,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.BulkResultDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeAdjustmentDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
+import com.iftm.client.dto.ValueCountDTO;
 import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientReactiveRepository;
 import com.iftm.client.repositories.ClientRepository;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.ExportFormat;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 import com.iftm.client.tests.factory.ClientFactory;
 
 @SpringBootTest //carrega o contexto da aplicacao
@@ -27,6 +48,9 @@ public class ClientServiceIT {
 	
 	@Autowired
 	private ClientRepository repository;
+	
+	@Autowired
+	private ClientReactiveRepository reactiveRepository;
 
 	private long existingId;
 	private long nonExistingId;
@@ -76,13 +100,270 @@ public class ClientServiceIT {
 		Assertions.assertEquals(countClientByIncome, result.getTotalElements());
 	}
 	
+	// /clients/findAll é servido pelo export em JSON
 	@Test
-	public void findAllShouldReturnAllClients() {
-		List<ClientDTO> result = service.findAll();
+	public void findAllShouldReturnAllClients() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		
+		service.export(ExportFormat.JSON, out);
+		
+		JsonNode result = new ObjectMapper().readTree(out.toByteArray());
+		Assertions.assertTrue(result.isArray());
 		Assertions.assertEquals(countTotalClients, result.size());
 	}
 	
+	@Test
+	public void findAllSeekShouldWalkAllClientsInOrderWithoutRepeating() {
+		Set<Long> ids = new HashSet<>();
+		String previousName = "";
+		String cursor = null;
+		int pages = 0;
+		do {
+			CursorPageDTO<ClientDTO> result = service.findAllSeek(cursor, 5, Direction.ASC, "name");
+			for (ClientDTO dto : result.getContent()) {
+				Assertions.assertTrue(previousName.compareTo(dto.getName()) <= 0);
+				Assertions.assertTrue(ids.add(dto.getId()));
+				previousName = dto.getName();
+			}
+			cursor = result.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		Assertions.assertEquals(3, pages);
+		Assertions.assertEquals(countTotalClients, ids.size());
+	}
+	
+	@Test
+	public void exportShouldWriteOneLinePerClientAsNdjson() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		service.export(ExportFormat.NDJSON, out);
+		
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		Assertions.assertEquals(countTotalClients, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("{"));
+	}
+	
+	@Test
+	public void exportShouldWriteHeaderAndOneLinePerClientAsCsv() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		service.export(ExportFormat.CSV, out);
+		
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		Assertions.assertEquals(countTotalClients + 1, lines.length);
+		Assertions.assertEquals("id,name,cpf,income,birthDate,children", lines[0]);
+	}
+	
+	@Test
+	public void insertAllShouldInsertEveryClientInChunks() {
+		int total = 1200;
+		List<ClientDTO> dtos = new ArrayList<>();
+		for (int i = 0; i < total; i++) {
+			dtos.add(ClientFactory.createClientDTO(null));
+		}
+		
+		BatchInsertResultDTO result = service.insertAll(dtos.iterator());
+		
+		Assertions.assertEquals(total, result.getInserted());
+		Assertions.assertEquals(0, result.getFailed());
+		Assertions.assertEquals(3, result.getChunks().size());
+		Assertions.assertEquals(countTotalClients + total, repository.count());
+	}
+	
+	@Test
+	public void findByIdShouldNotReturnStaleClientAfterUpdate() {
+		service.findById(existingId);
+		service.update(existingId, clientDTO);
+		
+		ClientDTO result = service.findById(existingId);
+		
+		Assertions.assertEquals(clientDTO.getName(), result.getName());
+	}
+	
+	@Test
+	public void updateShouldThrowVersionConflictExceptionWhenBodyVersionIsStale() {
+		clientDTO.setVersion(service.findById(existingId).getVersion() + 1);
+		
+		Assertions.assertThrows(VersionConflictException.class, () -> service.update(existingId, clientDTO));
+	}
+	
+	@Test
+	public void updateShouldThrowPreconditionFailedExceptionWhenIfMatchIsStale() {
+		long stale = service.findById(existingId).getVersion() + 1;
+		
+		Assertions.assertThrows(PreconditionFailedException.class, () -> service.update(existingId, clientDTO, stale));
+	}
+	
+	@Test
+	public void updateShouldIncrementVersion() {
+		long before = service.findById(existingId).getVersion();
+		clientDTO.setVersion(before);
+		
+		Assertions.assertEquals(before + 1, service.update(existingId, clientDTO).getVersion());
+	}
+	
+	@Test
+	public void patchShouldChangeOnlyGivenFieldsAndIncrementVersion() {
+		ClientDTO before = service.findById(existingId);
+		ClientDTO changes = new ClientDTO();
+		changes.setName("Maria Firmina dos Reis");
+		changes.setVersion(before.getVersion());
+		
+		ClientDTO result = service.patch(existingId, changes);
+		
+		Assertions.assertEquals("Maria Firmina dos Reis", result.getName());
+		Assertions.assertEquals(before.getCpf(), result.getCpf());
+		Assertions.assertEquals(before.getIncome(), result.getIncome());
+		Assertions.assertEquals(before.getVersion() + 1, result.getVersion());
+	}
+	
+	@Test
+	public void patchShouldThrowVersionConflictExceptionWhenVersionIsStale() {
+		ClientDTO changes = new ClientDTO();
+		changes.setIncome(9000.0);
+		changes.setVersion(service.findById(existingId).getVersion() + 1);
+		
+		Assertions.assertThrows(VersionConflictException.class, () -> service.patch(existingId, changes));
+	}
+	
+	@Test
+	public void patchShouldThrowPreconditionFailedExceptionWhenIfMatchIsStale() {
+		ClientDTO changes = new ClientDTO();
+		changes.setIncome(9000.0);
+		long stale = service.findById(existingId).getVersion() + 1;
+		
+		Assertions.assertThrows(PreconditionFailedException.class, () -> service.patch(existingId, changes, stale));
+	}
+	
+	@Test
+	public void patchShouldThrowResourceNotFoundExceptionWhenIdDoesNotExist() {
+		ClientDTO changes = new ClientDTO();
+		changes.setIncome(9000.0);
+		
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> service.patch(nonExistingId, changes));
+	}
+	
+	@Test
+	public void deleteAllShouldDeleteOnlyExistingIdsAndReturnTheCount() {
+		BulkResultDTO result = service.deleteAll(List.of(1L, 2L, nonExistingId));
+		
+		Assertions.assertEquals(2L, result.getAffected());
+		Assertions.assertEquals(countTotalClients - 2, repository.count());
+	}
+	
+	@Test
+	public void adjustIncomeShouldUpdateOnlyClientsInsideTheRange() {
+		BulkResultDTO result = service.adjustIncome(new IncomeAdjustmentDTO(4000.0, null, 1.1));
+		
+		Assertions.assertEquals(countClientByIncome, result.getAffected());
+		Assertions.assertEquals(1500.0, service.findById(existingId).getIncome());
+		Assertions.assertEquals(10000.0 * 1.1, service.findById(8L).getIncome(), 0.001);
+	}
+	
+	@Test
+	public void incomeStatsShouldAggregateAllClients() {
+		IncomeSummaryDTO stats = service.incomeStats();
+		
+		Assertions.assertEquals(countTotalClients, stats.getCount());
+		Assertions.assertEquals(47300.0, stats.getSum());
+		Assertions.assertEquals(1500.0, stats.getMin());
+		Assertions.assertEquals(10000.0, stats.getMax());
+		Assertions.assertEquals(13L, stats.getChildren());
+	}
+	
+	@Test
+	public void incomeBandStatsShouldCountClientsPerBand() {
+		List<IncomeBucketDTO> bands = service.incomeBandStats(5000.0);
+		
+		Assertions.assertEquals(3, bands.size());
+		Assertions.assertEquals(9L, bands.get(0).getCount());
+		Assertions.assertEquals(5000.0, bands.get(1).getFrom());
+		Assertions.assertEquals(2L, bands.get(1).getCount());
+		Assertions.assertEquals(1L, bands.get(2).getCount());
+	}
+	
+	@Test
+	public void childrenAndBirthYearStatsShouldGroupClients() {
+		List<ValueCountDTO> children = service.childrenStats();
+		List<ValueCountDTO> years = service.birthYearStats();
+		
+		Assertions.assertEquals(0L, children.get(0).getValue());
+		Assertions.assertEquals(6L, children.get(0).getCount());
+		Assertions.assertEquals(countTotalClients, children.stream().mapToLong(ValueCountDTO::getCount).sum());
+		Assertions.assertEquals(3L, years.stream().filter(x -> x.getValue() == 1996L).findFirst().get().getCount());
+	}
+	
+	@Test
+	public void findAllPagedShouldNotServeACachedPageAfterAWrite() {
+		Page<ClientDTO> first = service.findAllPaged(pageResquest);
+		Assertions.assertSame(first, service.findAllPaged(pageResquest));
+		String eTag = service.listETag();
+		
+		service.insert(clientDTO);
+		
+		Assertions.assertNotEquals(eTag, service.listETag());
+		Assertions.assertEquals(countTotalClients + 1, service.findAllPaged(pageResquest).getTotalElements());
+	}
+	
+	@Test
+	public void reactiveFindByIdShouldReadTheSameDatabase() {
+		ClientDTO result = reactiveRepository.findById(existingId2).block();
+		
+		Assertions.assertEquals(existingName, result.getName());
+		Assertions.assertEquals(existingCpf, result.getCpf());
+	}
+	
+	@Test
+	public void reactiveFindByIncomeShouldStreamClientsWithIncomeGreaterThanOrEqualToValue() {
+		Long count = reactiveRepository.findByIncome(4000.0).count().block();
+		
+		Assertions.assertEquals((long) countClientByIncome, count);
+	}
+	
+	@Test
+	public void findByBirthYearShouldReturnOnlyClientsBornInThatYear() {
+		Page<ClientDTO> result = service.findByBirthYear(Year.of(1996), pageResquest);
+		
+		Assertions.assertEquals(3L, result.getTotalElements());
+	}
+	
+	@Test
+	public void findByBirthDateRangeShouldTreatEndAsExclusive() {
+		Page<ClientDTO> result = service.findByBirthDateRange(LocalDate.parse("1956-09-23"), LocalDate.parse("1960-04-13"), pageResquest);
+		
+		Assertions.assertEquals(2L, result.getTotalElements());
+	}
+	
+	@Test
+	public void findByBirthDateRangeSeekShouldWalkTheRangeWithoutRepeating() {
+		Set<Long> seen = new HashSet<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<ClientDTO> result = service.findByBirthDateRangeSeek(LocalDate.parse("1996-01-01"),
+					LocalDate.parse("1997-01-01"), cursor, 2, Direction.ASC);
+			result.getContent().forEach(x -> Assertions.assertTrue(seen.add(x.getId())));
+			cursor = result.getNextCursor();
+		} while (cursor != null);
+		
+		Assertions.assertEquals(3, seen.size());
+	}
+	
+	@Test
+	public void findByNameShouldCapThePageSize() {
+		Page<ClientDTO> result = service.findByName("a", PageRequest.of(0, 1000));
+		
+		Assertions.assertTrue(result.getSize() <= 100);
+	}
+	
+	@Test
+	public void findByNameShouldFindClientsIgnoringCaseAndAccents() {
+		Page<ClientDTO> result = service.findByName("conceicao", pageResquest);
+		
+		Assertions.assertEquals(1L, result.getTotalElements());
+		Assertions.assertEquals("Conceição Evaristo", result.getContent().get(0).getName());
+	}
+	
 	// Atividade: testes de integração
 	
 	/* Implementar um teste que ao receber um id existente deve excluir o cliente com o
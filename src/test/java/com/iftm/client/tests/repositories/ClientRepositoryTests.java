@@ -1,8 +1,11 @@
 package com.iftm.client.tests.repositories;
 
+import java.time.Instant;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.persistence.EntityNotFoundException;
@@ -12,11 +15,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ValueCountDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
 import com.iftm.client.tests.factory.ClientFactory;
@@ -26,6 +33,9 @@ public class ClientRepositoryTests {
 
 	@Autowired
 	private ClientRepository repository;
+	
+	@Autowired
+	private TestEntityManager entityManager;
 
 	private long existingId;
 	private long noneExistingId;
@@ -92,12 +102,44 @@ public class ClientRepositoryTests {
 		Double income = 4000.0;
 		PageRequest pageResquest = PageRequest.of(0, 10);
 
-		Page<Client> result = repository.findByIncome(income, pageResquest);
+		Page<ClientDTO> result = repository.findProjectedByIncome(income, pageResquest);
 
 		Assertions.assertFalse(result.isEmpty());
 		Assertions.assertEquals(countClientByIncome, result.getTotalElements());
 	}
 
+	@Test
+	public void findSliceByIncomeShouldReportNextSliceWithoutCounting() {
+
+		Double income = 4000.0;
+
+		Slice<ClientDTO> first = repository.findProjectedSliceByIncome(income, PageRequest.of(0, 3));
+		Slice<ClientDTO> last = repository.findProjectedSliceByIncome(income, PageRequest.of(1, 3));
+
+		Assertions.assertEquals(3, first.getNumberOfElements());
+		Assertions.assertTrue(first.hasNext());
+		Assertions.assertEquals(countClientByIncome - 3, last.getNumberOfElements());
+		Assertions.assertFalse(last.hasNext());
+	}
+
+	@Test
+	public void findByIncomeRangeShouldReturnOnlyClientsInsideTheRange() {
+
+		Page<ClientDTO> result = repository.findProjectedByIncomeRange(2500.0, 4500.0, PageRequest.of(0, 10));
+
+		Assertions.assertEquals(6L, result.getTotalElements());
+		result.forEach(x -> Assertions.assertTrue(x.getIncome() >= 2500.0 && x.getIncome() <= 4500.0));
+	}
+
+	@Test
+	public void incomeQueryPlanShouldUseIncomeIndex() {
+		Object plan = entityManager.getEntityManager()
+				.createNativeQuery("EXPLAIN SELECT * FROM tb_client WHERE income >= 4000.0 ORDER BY name")
+				.getSingleResult();
+
+		Assertions.assertTrue(String.valueOf(plan).toUpperCase().contains("IDX_CLIENT_INCOME_NAME"));
+	}
+
 	// Atividade 3 - Testes JPA Repository
 
 	// Testar o find para nome existente;
@@ -180,4 +222,31 @@ public class ClientRepositoryTests {
 
 		Assertions.assertEquals(newIncome, entity.getIncome());
 	}
+	
+	// countByBirthYear deveria contar por ano em UTC, com [1º de janeiro, 1º de janeiro seguinte)
+	@Test
+	public void countByBirthYearShouldSplitYearsAtUtcMidnight() {
+		Map<Long, Long> before = byYear(repository.countByBirthYear());
+		entityManager.persist(new Client(null, "Fim de 1999", "00000000001", 1000.0,
+				Instant.parse("1999-12-31T23:59:59Z"), 0));
+		entityManager.persist(new Client(null, "Início de 2000", "00000000002", 1000.0,
+				Instant.parse("2000-01-01T00:00:00Z"), 0));
+		entityManager.persist(new Client(null, "Sem data", "00000000003", 1000.0, null, 0));
+		entityManager.flush();
+
+		List<ValueCountDTO> result = repository.countByBirthYear();
+		Map<Long, Long> after = byYear(result);
+
+		Assertions.assertEquals(before.getOrDefault(1999L, 0L) + 1, after.get(1999L));
+		Assertions.assertEquals(before.getOrDefault(2000L, 0L) + 1, after.get(2000L));
+		Assertions.assertEquals(before.getOrDefault(null, 0L) + 1, after.get(null));
+		Assertions.assertNull(result.get(result.size() - 1).getValue());
+		Assertions.assertEquals(countTotalClients + 3, result.stream().mapToLong(ValueCountDTO::getCount).sum());
+	}
+
+	private static Map<Long, Long> byYear(List<ValueCountDTO> counts) {
+		Map<Long, Long> result = new HashMap<>();
+		counts.forEach(x -> result.put(x.getValue(), x.getCount()));
+		return result;
+	}
 }
@@ -0,0 +1,143 @@
+package com.iftm.client.tests.services;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeSummaryDTO;
+import com.iftm.client.dto.NameCountDTO;
+import com.iftm.client.dto.ValueCountDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.analytics.ClientAnalytics;
+import com.iftm.client.services.events.ClientChangedEvent;
+
+public class ClientAnalyticsTests {
+
+	private ClientAnalytics analytics;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		analytics = new ClientAnalytics();
+		analytics.put(new ClientDTO(1L, "Conceição Evaristo", "10619244881", 1500.0, Instant.parse("1990-05-20T10:30:00Z"), 2));
+		analytics.put(new ClientDTO(2L, "Lázaro Ramos", "10619244882", 2500.0, Instant.parse("1990-01-01T00:00:00Z"), 0));
+		analytics.put(new ClientDTO(3L, "Lázaro Ramos", "10619244883", 4000.0, Instant.parse("1985-07-10T00:00:00Z"), 1));
+		analytics.put(new ClientDTO(4L, "Carolina Maria de Jesus", "10619244884", null, null, null));
+	}
+
+	@Test
+	public void summaryShouldAggregateIncomeAndIgnoreNulls() {
+		IncomeSummaryDTO summary = analytics.summary();
+
+		Assertions.assertEquals(4L, summary.getCount());
+		Assertions.assertEquals(3L, summary.getWithIncome());
+		Assertions.assertEquals(8000.0, summary.getSum());
+		Assertions.assertEquals(1500.0, summary.getMin());
+		Assertions.assertEquals(4000.0, summary.getMax());
+		Assertions.assertEquals(2500.0, summary.getP50());
+		Assertions.assertEquals(3L, summary.getChildren());
+	}
+
+	@Test
+	public void incomeHistogramShouldGroupByBucketWidth() {
+		List<IncomeBucketDTO> buckets = analytics.incomeHistogram(2000.0);
+
+		Assertions.assertEquals(2, buckets.size());
+		Assertions.assertEquals(0.0, buckets.get(0).getFrom());
+		Assertions.assertEquals(1L, buckets.get(0).getCount());
+		Assertions.assertEquals(2000.0, buckets.get(1).getFrom());
+		Assertions.assertEquals(2L, buckets.get(1).getCount());
+	}
+
+	@Test
+	public void birthYearsShouldCountMissingDatesLast() {
+		List<ValueCountDTO> years = analytics.birthYears();
+
+		Assertions.assertEquals(3, years.size());
+		Assertions.assertEquals(1985L, years.get(0).getValue());
+		Assertions.assertEquals(1990L, years.get(1).getValue());
+		Assertions.assertEquals(2L, years.get(1).getCount());
+		Assertions.assertNull(years.get(2).getValue());
+	}
+
+	@Test
+	public void topNamesShouldOrderByCount() {
+		List<NameCountDTO> names = analytics.topNames(1);
+
+		Assertions.assertEquals(1, names.size());
+		Assertions.assertEquals("Lázaro Ramos", names.get(0).getName());
+		Assertions.assertEquals(2L, names.get(0).getCount());
+	}
+
+	@Test
+	public void snapshotShouldReflectUpdatesAndRemovals() {
+		analytics.summary();
+		analytics.onChange(ClientChangedEvent.saved(new ClientDTO(2L, "Lázaro Ramos", "10619244882", 6000.0, Instant.parse("1990-01-01T00:00:00Z"), 0)));
+		analytics.onChange(ClientChangedEvent.deleted(1L));
+
+		IncomeSummaryDTO summary = analytics.summary();
+		Assertions.assertEquals(3L, summary.getCount());
+		Assertions.assertEquals(10000.0, summary.getSum());
+		Assertions.assertEquals(6000.0, summary.getMax());
+		Assertions.assertEquals(1, analytics.children().stream().filter(x -> x.getValue() == null).count());
+	}
+
+	@Test
+	public void incomeAdjustmentShouldOnlyTouchIncomesInsideTheRange() {
+		analytics.summary();
+		analytics.onChange(ClientChangedEvent.incomeAdjusted(2000.0, 3000.0, 2.0));
+
+		IncomeSummaryDTO summary = analytics.summary();
+		Assertions.assertEquals(3L, summary.getWithIncome());
+		Assertions.assertEquals(10500.0, summary.getSum());
+		Assertions.assertEquals(5000.0, summary.getMax());
+		Assertions.assertEquals(4000.0, summary.getP50());
+	}
+
+	@Test
+	public void rebuildShouldKeepChangesThatArriveWhileLoading() {
+		ClientRepository repository = Mockito.mock(ClientRepository.class);
+		Mockito.when(repository.streamAll()).thenAnswer(invocation -> {
+			analytics.put(new ClientDTO(5L, "Conceição Evaristo", "10619244885", 7000.0, null, 3));
+			analytics.remove(1L);
+			return Stream.of(new ClientDTO(1L, "Carolina Maria de Jesus", "10619244881", 1000.0, null, 0),
+					new ClientDTO(2L, "Lázaro Ramos", "10619244882", 2000.0, null, 0));
+		});
+		useRepository(repository);
+
+		analytics.rebuild();
+
+		IncomeSummaryDTO summary = analytics.summary();
+		Assertions.assertEquals(2L, summary.getCount());
+		Assertions.assertEquals(9000.0, summary.getSum());
+		Assertions.assertEquals(3L, summary.getChildren());
+	}
+
+	@Test
+	public void rebuildShouldReloadWhenIncomeIsAdjustedWhileLoading() {
+		ClientRepository repository = Mockito.mock(ClientRepository.class);
+		Mockito.when(repository.streamAll()).thenAnswer(invocation -> {
+			analytics.adjustIncome(0.0, Double.MAX_VALUE, 2.0);
+			return Stream.of(new ClientDTO(1L, "Carolina Maria de Jesus", "10619244881", 1000.0, null, 0));
+		}).thenAnswer(invocation -> Stream.of(new ClientDTO(1L, "Carolina Maria de Jesus", "10619244881", 2000.0, null, 0)));
+		useRepository(repository);
+
+		analytics.rebuild();
+
+		Mockito.verify(repository, Mockito.times(2)).streamAll();
+		Assertions.assertEquals(2000.0, analytics.summary().getSum());
+	}
+
+	private void useRepository(ClientRepository repository) {
+		ReflectionTestUtils.setField(analytics, "repository", repository);
+		ReflectionTestUtils.setField(analytics, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+	}
+}
@@ -0,0 +1,92 @@
+package com.iftm.client.tests.services;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.ChunkResultDTO;
+import com.iftm.client.dto.IngestionStatusDTO;
+import com.iftm.client.dto.IngestionStatusDTO.Status;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.ServiceUnavailableException;
+import com.iftm.client.services.ingestion.ClientIngestionService;
+import com.iftm.client.tests.factory.ClientFactory;
+
+public class ClientIngestionServiceTests {
+
+	private ClientService service;
+	private ClientIngestionService ingestion;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		service = Mockito.mock(ClientService.class);
+		ingestion = new ClientIngestionService(service, true, 2, 10, Duration.ZERO, Duration.ofMinutes(1));
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		ingestion.stop();
+	}
+
+	@Test
+	public void enqueueShouldThrowServiceUnavailableExceptionWhenQueueIsFull() {
+		ingestion.enqueue(ClientFactory.createClientDTO(null));
+		ingestion.enqueue(ClientFactory.createClientDTO(null));
+
+		Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+			ingestion.enqueue(ClientFactory.createClientDTO(null));
+		});
+	}
+
+	@Test
+	public void workerShouldInsertQueuedClientsAndReportTheirIds() throws Exception {
+		BatchInsertResultDTO result = new BatchInsertResultDTO();
+		result.addChunk(new ChunkResultDTO(0, 2, true, List.of(20L, 21L), null));
+		Mockito.when(service.insertAll(ArgumentMatchers.any())).thenReturn(result);
+		IngestionStatusDTO first = ingestion.enqueue(ClientFactory.createClientDTO(null));
+		IngestionStatusDTO second = ingestion.enqueue(ClientFactory.createClientDTO(null));
+
+		ingestion.start();
+		ingestion.stop();
+
+		Assertions.assertEquals(Status.DONE, ingestion.getStatus(first.getTrackingId()).getStatus());
+		Assertions.assertEquals(20L, ingestion.getStatus(first.getTrackingId()).getClientId());
+		Assertions.assertEquals(21L, ingestion.getStatus(second.getTrackingId()).getClientId());
+	}
+
+	@Test
+	public void workerShouldRetryAFailedChunkOneByOneSoOnlyTheBadTicketFails() throws Exception {
+		BatchInsertResultDTO failed = new BatchInsertResultDTO();
+		failed.addChunk(new ChunkResultDTO(0, 2, false, null, "duplicate cpf"));
+		BatchInsertResultDTO firstAlone = new BatchInsertResultDTO();
+		firstAlone.addChunk(new ChunkResultDTO(0, 1, true, List.of(20L), null));
+		BatchInsertResultDTO secondAlone = new BatchInsertResultDTO();
+		secondAlone.addChunk(new ChunkResultDTO(0, 1, false, null, "duplicate cpf"));
+		Mockito.when(service.insertAll(ArgumentMatchers.any())).thenReturn(failed, firstAlone, secondAlone);
+		IngestionStatusDTO first = ingestion.enqueue(ClientFactory.createClientDTO(null));
+		IngestionStatusDTO second = ingestion.enqueue(ClientFactory.createClientDTO(null));
+
+		ingestion.start();
+		ingestion.stop();
+
+		Assertions.assertEquals(Status.DONE, ingestion.getStatus(first.getTrackingId()).getStatus());
+		Assertions.assertEquals(20L, ingestion.getStatus(first.getTrackingId()).getClientId());
+		Assertions.assertEquals(Status.FAILED, ingestion.getStatus(second.getTrackingId()).getStatus());
+		Mockito.verify(service, Mockito.times(3)).insertAll(ArgumentMatchers.any());
+	}
+
+	@Test
+	public void getStatusShouldThrowResourceNotFoundExceptionWhenTrackingIdIsUnknown() {
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			ingestion.getStatus("unknown");
+		});
+	}
+}
@@ -0,0 +1,84 @@
+package com.iftm.client.tests.services;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.search.ClientNameIndex;
+import com.iftm.client.services.search.NameSearchResult;
+
+public class ClientNameIndexTests {
+
+	private ClientNameIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		index = new ClientNameIndex();
+		index.put(1L, "Carolina Maria de Jesus");
+		index.put(2L, "Lázaro Ramos");
+		index.put(3L, "Maria Carolina");
+		index.put(4L, "Carol");
+	}
+
+	@Test
+	public void searchShouldIgnoreCaseAndAccents() {
+		NameSearchResult result = index.search("LAZARO", 0, 10);
+
+		Assertions.assertEquals(List.of(2L), result.getIds());
+	}
+
+	@Test
+	public void searchShouldRankExactThenPrefixThenWordPrefixMatches() {
+		NameSearchResult result = index.search("carol", 0, 10);
+
+		Assertions.assertEquals(List.of(4L, 1L, 3L), result.getIds());
+	}
+
+	@Test
+	public void searchShouldPaginateAndReportTotal() {
+		NameSearchResult result = index.search("carol", 1, 1);
+
+		Assertions.assertEquals(3L, result.getTotal());
+		Assertions.assertEquals(List.of(1L), result.getIds());
+	}
+
+	@Test
+	public void searchShouldReflectUpdatesAndRemovals() {
+		index.put(4L, "Conceição Evaristo");
+		index.remove(3L);
+
+		Assertions.assertEquals(List.of(1L), index.search("carol", 0, 10).getIds());
+		Assertions.assertEquals(List.of(4L), index.search("conceicao", 0, 10).getIds());
+	}
+
+	@Test
+	public void searchWithShortQueryShouldScanAllNames() {
+		Assertions.assertEquals(4L, index.search("", 0, 10).getTotal());
+		Assertions.assertEquals(2L, index.search("ma", 0, 10).getTotal());
+	}
+
+	@Test
+	public void rebuildShouldKeepChangesThatArriveWhileLoading() {
+		ClientRepository repository = Mockito.mock(ClientRepository.class);
+		Mockito.when(repository.streamNames()).thenAnswer(invocation -> {
+			index.put(5L, "Conceição Evaristo");
+			index.remove(1L);
+			return Stream.of(new Object[] { 1L, "Carolina Maria de Jesus" }, new Object[] { 2L, "Lázaro Ramos" });
+		});
+		ReflectionTestUtils.setField(index, "repository", repository);
+		ReflectionTestUtils.setField(index, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+
+		index.rebuild();
+
+		Assertions.assertEquals(List.of(5L), index.search("conceicao", 0, 10).getIds());
+		Assertions.assertEquals(List.of(2L), index.search("lazaro", 0, 10).getIds());
+		Assertions.assertEquals(0L, index.search("carolina", 0, 10).getTotal());
+	}
+}
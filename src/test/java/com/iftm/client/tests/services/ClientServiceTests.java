@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -23,8 +24,12 @@ import com.iftm.client.dto.ClientDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.cache.ClientCache;
+import com.iftm.client.services.cache.ClientPageCache;
 import com.iftm.client.services.exceptions.DatabaseException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.ServiceUnavailableException;
+import com.iftm.client.services.search.ClientNameIndex;
 import com.iftm.client.tests.factory.ClientFactory;
 
 @ExtendWith(SpringExtension.class)
@@ -35,6 +40,18 @@ public class ClientServiceTests {
 
 	@Mock
 	private ClientRepository repository;
+	
+	@Mock
+	private ClientCache cache;
+	
+	@Mock
+	private ClientPageCache pageCache;
+	
+	@Mock
+	private ApplicationEventPublisher publisher;
+	
+	@Mock
+	private ClientNameIndex nameIndex;
 
 	private long existingId;
 	private long nonExistingId;
@@ -44,8 +61,8 @@ public class ClientServiceTests {
 	private Client client;
 	private ClientDTO dtoClient;
 	private PageRequest pageRequest;
-	private List<Client> fakeList;
-	private Page<Client> pageMock;
+	private List<ClientDTO> fakeList;
+	private Page<ClientDTO> pageMock;
 	private Double income;
 	
 	@BeforeEach
@@ -59,8 +76,8 @@ public class ClientServiceTests {
 		dtoClient = ClientFactory.createClientDTO();
 		pageRequest = PageRequest.of(0, 12, Direction.valueOf("ASC"), "name");
 		fakeList = new ArrayList<>();
-		fakeList.add(client);
-		pageMock = new PageImpl<Client>(fakeList);
+		fakeList.add(dtoClient);
+		pageMock = new PageImpl<ClientDTO>(fakeList);
 		income = 1500.0;
 		
 		// Configurando comportamento para o meu mock
@@ -76,8 +93,8 @@ public class ClientServiceTests {
 		Mockito.doThrow(ResourceNotFoundException.class).when(repository).findById(nonExistingId);
 		Mockito.doThrow(DataIntegrityViolationException.class).when(repository).deleteById(dependentId2);
 	
-		Mockito.when(repository.findAll(pageRequest)).thenReturn(pageMock);
-		Mockito.when(repository.findByIncome(income, pageRequest)).thenReturn(pageMock);
+		Mockito.when(repository.findAllProjected(pageRequest)).thenReturn(pageMock);
+		Mockito.when(repository.findProjectedByIncome(income, pageRequest)).thenReturn(pageMock);
 		Mockito.when(repository.getOne(existingId)).thenReturn(client);
 		Mockito.when(repository.save(client)).thenReturn(client);
 
@@ -155,7 +172,7 @@ public class ClientServiceTests {
 		public void findAllPagedShouldReturnAPageAndCallFindAllMethodFromRepository() {
 			Assertions.assertNotNull(service.findAllPaged(pageRequest));
 			
-			Mockito.verify(repository, Mockito.times(1)).findAll(pageRequest);	
+			Mockito.verify(repository, Mockito.times(1)).findAllProjected(pageRequest);	
 		}
 
 	// findByIncome deveria retornar uma página (e chamar o método findByIncome do
@@ -164,7 +181,7 @@ public class ClientServiceTests {
 		public void findByIncomeShouldReturnAPageAndCallfindByIncomeMethod() {
 			Assertions.assertNotNull(service.findByIncome(income, pageRequest));
 			
-			Mockito.verify(repository, Mockito.times(1)).findByIncome(income, pageRequest);	
+			Mockito.verify(repository, Mockito.times(1)).findProjectedByIncome(income, pageRequest);	
 		}
 
 	// findById deveria
@@ -183,6 +200,15 @@ public class ClientServiceTests {
 		Mockito.verify(repository, Mockito.times(1)).findById(existingId);
 	}
 
+	@Test
+	public void findByIdShouldNotCallRepositoryWhenClientIsCached() {
+		Mockito.when(cache.get(existingId)).thenReturn(dtoClient);
+		
+		Assertions.assertSame(dtoClient, service.findById(existingId));
+		
+		Mockito.verify(repository, Mockito.never()).findById(existingId);
+	}
+
 	// ○ lançar ResourceNotFoundException quando o id não existir
 	@Test
 	public void findByIdShouldThrowsResourceNotFoundExceptionWhenIdNotExists() {
@@ -226,4 +252,15 @@ public class ClientServiceTests {
 			Assertions.assertNotNull(clientDTO);
 			Mockito.verify(repository, Mockito.times(1)).save(clientDTO.toEntity());
 		}
+
+	// findByName deveria responder 503 enquanto o índice de nomes carrega, sem cair num LIKE no banco
+	@Test
+	public void findByNameShouldThrowServiceUnavailableExceptionWhileTheIndexIsLoading() {
+		Mockito.when(nameIndex.isReady()).thenReturn(false);
+
+		Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+			service.findByName("conceicao", pageRequest);
+		});
+		Mockito.verifyNoInteractions(repository);
+	}
 }
@@ -0,0 +1,69 @@
+package com.iftm.client.tests.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.parallel.ParallelPipeline;
+import com.iftm.client.tests.factory.ClientFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ParallelPipelineTests {
+
+	private ObjectMapper mapper;
+	private ParallelPipeline pipeline;
+	private List<ClientDTO> clients;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		mapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		pipeline = new ParallelPipeline(10, 3, 4, mapper);
+		clients = new ArrayList<>();
+		for (long id = 1; id <= 25; id++) {
+			clients.add(ClientFactory.createClientDTO(id));
+		}
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		pipeline.stop();
+	}
+
+	@Test
+	public void forJsonShouldReturnTheSamePageBelowThreshold() {
+		Page<ClientDTO> page = new PageImpl<>(clients.subList(0, 9), PageRequest.of(0, 9), 25);
+
+		Assertions.assertSame(page, pipeline.forJson(page));
+	}
+
+	@Test
+	public void forJsonShouldSerializeLikeJacksonAboveThreshold() throws Exception {
+		Page<ClientDTO> page = new PageImpl<>(clients, PageRequest.of(0, 25), 25);
+
+		Page<ClientDTO> parallel = pipeline.forJson(page);
+
+		Assertions.assertNotSame(page, parallel);
+		Assertions.assertEquals(mapper.writeValueAsString(page), mapper.writeValueAsString(parallel));
+	}
+
+	@Test
+	public void forJsonShouldRecordMappingTimeWhenBound() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		pipeline.bindTo(registry);
+
+		mapper.writeValueAsString(pipeline.forJson(new PageImpl<>(clients, PageRequest.of(0, 25), 25)));
+
+		Assertions.assertEquals(1, registry.get("client.dto.mapping").timer().count());
+	}
+}
@@ -0,0 +1,72 @@
+package com.iftm.client.tests.web;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.resources.converters.ClientBinaryCodec;
+import com.iftm.client.tests.factory.ClientFactory;
+
+public class ClientBinaryCodecTests {
+
+	@Test
+	public void pageShouldRoundTripWithAllFields() throws Exception {
+		ClientDTO client = ClientFactory.createClientDTO(300L);
+		client.setVersion(3L);
+		Page<ClientDTO> page = new PageImpl<>(List.of(client), PageRequest.of(2, 1), 10);
+
+		Page<?> decoded = (Page<?>) roundTrip(page);
+
+		Assertions.assertEquals(10L, decoded.getTotalElements());
+		Assertions.assertEquals(2, decoded.getNumber());
+		ClientDTO result = (ClientDTO) decoded.getContent().get(0);
+		Assertions.assertEquals(client.getId(), result.getId());
+		Assertions.assertEquals(client.getName(), result.getName());
+		Assertions.assertEquals(client.getCpf(), result.getCpf());
+		Assertions.assertEquals(client.getIncome(), result.getIncome());
+		Assertions.assertEquals(client.getBirthDate(), result.getBirthDate());
+		Assertions.assertEquals(client.getChildren(), result.getChildren());
+		Assertions.assertEquals(3L, result.getVersion());
+	}
+
+	@Test
+	public void sliceShouldKeepNullFieldsAndHasNext() throws Exception {
+		ClientDTO client = new ClientDTO(-5L, null, null, null, null, null);
+		Slice<ClientDTO> slice = new SliceImpl<>(List.of(client), PageRequest.of(0, 1), true);
+
+		Slice<?> decoded = (Slice<?>) roundTrip(slice);
+
+		Assertions.assertTrue(decoded.hasNext());
+		ClientDTO result = (ClientDTO) decoded.getContent().get(0);
+		Assertions.assertEquals(-5L, result.getId());
+		Assertions.assertNull(result.getName());
+		Assertions.assertNull(result.getBirthDate());
+	}
+
+	@Test
+	public void binaryShouldBeSmallerThanJson() throws Exception {
+		ObjectMapper mapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		Page<ClientDTO> page = new PageImpl<>(List.of(ClientFactory.createClientDTO(1L), ClientFactory.createClientDTO(2L)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ClientBinaryCodec.write(page, out);
+
+		Assertions.assertTrue(out.size() * 3 < mapper.writeValueAsBytes(page).length);
+	}
+
+	private static Object roundTrip(Slice<ClientDTO> slice) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ClientBinaryCodec.write(slice, out);
+		return ClientBinaryCodec.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+}
@@ -1,37 +1,61 @@
 package com.iftm.client.tests.web;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.ChunkResultDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.resources.converters.ClientBinaryCodec;
+import com.iftm.client.resources.converters.ClientBinaryHttpMessageConverter;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.events.ClientChangedEvent;
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.PreconditionFailedException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 import com.iftm.client.tests.factory.ClientFactory;
 
 @SpringBootTest
@@ -46,12 +70,14 @@ public class ClientResourceTests {
 	@Autowired
 	private ObjectMapper objectMapper;
 	
+	@Autowired
+	private ApplicationEventPublisher publisher;
+	
 	private Long existingId;
 	private Long nonExistingId;
 	private Long dependentId;
 	private ClientDTO clientDTO;
 	private ClientDTO newClientDTO;
-	private List<ClientDTO> list;
 	private PageImpl<ClientDTO> page;
 	
 	@BeforeEach
@@ -61,20 +87,18 @@ public class ClientResourceTests {
 		dependentId = 4L;
 		clientDTO = ClientFactory.createClientDTO(existingId);
 		newClientDTO = ClientFactory.createClientDTO(null);
-		list = new ArrayList<ClientDTO>();
 		page = new PageImpl<>(List.of(clientDTO));
 		
 		//simular o comportamento de alguns metodos do service
 		when(service.findById(existingId)).thenReturn(clientDTO);
 		when(service.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
 		
-		when(service.findAll()).thenReturn(list);
 		when(service.findAllPaged(any())).thenReturn(page);
 		
 		when(service.insert(any())).thenReturn(clientDTO);
 		
-		when(service.update(eq(existingId), any())).thenReturn(clientDTO);
-		when(service.update(eq(nonExistingId), any())).thenThrow(ResourceNotFoundException.class);
+		when(service.update(eq(existingId), any(), any())).thenReturn(clientDTO);
+		when(service.update(eq(nonExistingId), any(), any())).thenThrow(ResourceNotFoundException.class);
 		
 		doNothing().when(service).delete(existingId);
 		doThrow(ResourceNotFoundException.class).when(service).delete(nonExistingId);
@@ -174,6 +198,30 @@ public class ClientResourceTests {
 		result.andExpect(jsonPath("$.error").value("Resource not found"));
 	}
 	
+	@Test
+	public void insertAllNdjsonShouldReturnPartialReportWhenALineIsMalformed() throws Exception {
+		when(service.insertAll(any())).thenAnswer(invocation -> {
+			Iterator<ClientDTO> dtos = invocation.getArgument(0);
+			List<Long> ids = new ArrayList<>();
+			while (dtos.hasNext()) {
+				ids.add(dtos.next().getId());
+			}
+			BatchInsertResultDTO result = new BatchInsertResultDTO();
+			result.addChunk(new ChunkResultDTO(0, ids.size(), true, ids, null));
+			return result;
+		});
+		String body = objectMapper.writeValueAsString(clientDTO) + "\n{\"name\": \n";
+		
+		ResultActions result = mockMvc.perform(post("/clients/batch")
+				.content(body)
+				.contentType("application/x-ndjson")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+		result.andExpect(jsonPath("$.inserted").value(1));
+		result.andExpect(jsonPath("$.parseError").exists());
+	}
+	
 	@Test
 	public void findAllShouldReturnPage() throws Exception{
 		ResultActions result =
@@ -185,6 +233,89 @@ public class ClientResourceTests {
 		result.andExpect(jsonPath("$.content").exists());
 	}
 	
+	@Test
+	public void findAllShouldReturnBinaryPageWhenRequested() throws Exception{
+		MvcResult result = mockMvc.perform(get("/clients/")
+						.accept(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andReturn();
+		
+		Page<?> decoded = (Page<?>) ClientBinaryCodec.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+		Assertions.assertEquals(1, decoded.getContent().size());
+		Assertions.assertEquals(existingId, ((ClientDTO) decoded.getContent().get(0)).getId());
+	}
+	
+	@Test
+	public void findByIdShouldReturnBinaryClientWhenRequested() throws Exception{
+		MvcResult result = mockMvc.perform(get("/clients/{id}", existingId)
+						.accept(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andReturn();
+		
+		ClientDTO decoded = (ClientDTO) ClientBinaryCodec.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+		Assertions.assertEquals(clientDTO.getName(), decoded.getName());
+	}
+	
+	@Test
+	public void findByIdShouldGiveTheBinaryRepresentationItsOwnETag() throws Exception{
+		String jsonETag = "\"" + clientDTO.getVersion() + "\"";
+		
+		mockMvc.perform(get("/clients/{id}", existingId)
+						.header("If-None-Match", jsonETag)
+						.accept(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + clientDTO.getVersion() + "-bin\""))
+				.andExpect(header().stringValues("Vary", hasItem("Accept")));
+		mockMvc.perform(get("/clients/{id}", existingId)
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", jsonETag))
+				.andExpect(header().stringValues("Vary", hasItem("Accept")));
+	}
+	
+	@Test
+	public void findAllShouldKeepSeparateETagsForJsonAndBinary() throws Exception{
+		when(service.listETag()).thenReturn("W/\"1-0\"");
+		
+		mockMvc.perform(get("/clients/")
+						.header("If-None-Match", "W/\"1-0\"")
+						.accept(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "W/\"1-0-bin\""));
+		mockMvc.perform(get("/clients/")
+						.header("If-None-Match", "W/\"1-0-bin\"")
+						.accept(ClientBinaryHttpMessageConverter.MEDIA_TYPE))
+				.andExpect(status().isNotModified())
+				.andExpect(header().stringValues("Vary", hasItem("Accept")));
+	}
+	
+	@Test
+	public void findAllShouldFallBackToJsonETagWhenAcceptIsMalformed() throws Exception{
+		when(service.listETag()).thenReturn("W/\"1-0\"");
+		
+		ResultActions result =
+				mockMvc.perform(get("/clients/")
+						.header("If-None-Match", "W/\"1-0\"")
+						.header("Accept", "not-a-media-type"));
+		
+		result.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	public void findAllShouldReturnNotModifiedWithoutQueryingWhenETagMatches() throws Exception{
+		when(service.listETag()).thenReturn("W/\"1-0\"");
+		
+		ResultActions result =
+				mockMvc.perform(get("/clients/")
+						.header("If-None-Match", "W/\"1-0\"")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		verify(service, never()).findAllPaged(any());
+	}
+	
 	@Test
 	public void findAllShouldReturnList() throws Exception{
 		ResultActions result =
@@ -210,6 +341,153 @@ public class ClientResourceTests {
 		result.andExpect(jsonPath("$.id").value(existingId));
 	}
 	
+	@Test
+	public void findByIdShouldServeCachedJsonUntilTheClientChanges() throws Exception {
+		Long cachedId = 7L;
+		when(service.findById(cachedId)).thenReturn(ClientFactory.createClientDTO(cachedId));
+		
+		mockMvc.perform(get("/clients/{id}", cachedId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/clients/{id}", cachedId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(cachedId));
+		verify(service, times(1)).findById(cachedId);
+		
+		publisher.publishEvent(ClientChangedEvent.deleted(cachedId));
+		mockMvc.perform(get("/clients/{id}", cachedId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		verify(service, times(2)).findById(cachedId);
+	}
+	
+	@Test
+	public void findByIdShouldReturnNotModifiedWhenETagMatches() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/{id}", existingId)
+				.header("If-None-Match", "\"" + clientDTO.getVersion() + "\"")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	public void updateShouldReturnPreconditionFailedWhenIfMatchIsWeak() throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(newClientDTO);
+		
+		ResultActions result = mockMvc.perform(put("/clients/{id}", existingId)
+				.header("If-Match", "W/\"0\"")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isPreconditionFailed());
+	}
+	
+	@Test
+	public void patchShouldReturnPreconditionFailedWhenIfMatchIsWeak() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/clients/{id}", existingId)
+				.header("If-Match", "W/\"0\"")
+				.content("{\"income\":5000.0}")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isPreconditionFailed());
+	}
+	
+	@Test
+	public void patchShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+		when(service.patch(eq(existingId), any(), eq(7L)))
+				.thenThrow(new PreconditionFailedException("Client " + existingId + " is at version 8, If-Match expected 7"));
+		
+		ResultActions result = mockMvc.perform(patch("/clients/{id}", existingId)
+				.header("If-Match", "\"7\"")
+				.content("{\"income\":5000.0}")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isPreconditionFailed());
+	}
+	
+	@Test
+	public void updateShouldReturnConflictWhenOnlyBodyVersionIsStale() throws Exception {
+		when(service.update(eq(existingId), any(), isNull()))
+				.thenThrow(new VersionConflictException("Client " + existingId + " is at version 8, expected 7"));
+		newClientDTO.setVersion(7L);
+		String jsonBody = objectMapper.writeValueAsString(newClientDTO);
+		
+		ResultActions result = mockMvc.perform(put("/clients/{id}", existingId)
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isConflict());
+	}
+	
+	@Test
+	public void updateShouldPassIfMatchVersionToService() throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(newClientDTO);
+		
+		mockMvc.perform(put("/clients/{id}", existingId)
+				.header("If-Match", "\"3\"")
+				.content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		
+		verify(service).update(eq(existingId), any(), eq(3L));
+	}
+	
+	@Test
+	public void asyncFindByIncomeShouldCountByDefaultLikeTheSyncEndpoint() throws Exception {
+		when(service.findByIncome(eq(4000.0), any())).thenReturn(page);
+		MvcResult started = mockMvc.perform(get("/clients/async/find-by-income")
+				.param("income", "4000.0")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		ResultActions result = mockMvc.perform(asyncDispatch(started));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1));
+		verify(service, never()).findSliceByIncome(any(), any());
+	}
+	
+	@Test
+	public void asyncFindByIncomeShouldSkipTheCountWhenCountIsFalse() throws Exception {
+		when(service.findSliceByIncome(eq(4000.0), any())).thenReturn(new SliceImpl<>(List.of(clientDTO)));
+		MvcResult started = mockMvc.perform(get("/clients/async/find-by-income")
+				.param("income", "4000.0")
+				.param("count", "false")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+		verify(service, never()).findByIncome(any(), any());
+	}
+	
+	@Test
+	public void asyncFindByIdShouldReturnClientWhenIdExists() throws Exception {
+		MvcResult started = mockMvc.perform(get("/clients/async/{id}", existingId)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		ResultActions result = mockMvc.perform(asyncDispatch(started));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.id").value(existingId));
+	}
+	
+	@Test
+	public void asyncFindByIdShouldReturnNotFoundWhenIdDoesNotExists() throws Exception {
+		MvcResult started = mockMvc.perform(get("/clients/async/{id}", nonExistingId)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(started)).andExpect(status().isNotFound());
+	}
+	
 	@Test
 	public void findByIdShouldReturnNotFoundExceptionWhenIdDoesNotExists() throws Exception {
 		ResultActions result =